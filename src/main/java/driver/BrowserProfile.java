@@ -0,0 +1,76 @@
+package driver;
+
+import environment.EnvironmentConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Profiles a browser session can be started with.
+ */
+public enum BrowserProfile {
+
+  /**
+   * Full browser, loads every resource of the page as a real user.
+   */
+  DEFAULT,
+
+  /**
+   * Headless browser that does not load images nor the hosts blocked in the lean-profile
+   * section of the config file (analytics, map tiles, fonts...).
+   */
+  LEAN;
+
+  /**
+   * Address given to the blocked hosts in Firefox. Nothing listens on the discard port, so the
+   * requests fail immediately.
+   */
+  private static final String BLOCKING_PROXY = "PROXY 127.0.0.1:9";
+
+  /**
+   * Selects the profile of a test from its groups. A group listed in disabled-groups always
+   * gets the default profile. Otherwise the lean profile is used if -DleanProfile=true or if a
+   * group is listed in enabled-groups.
+   * @param groups the groups of the test
+   * @return the BrowserProfile to be used by the test
+   */
+  public static BrowserProfile forGroups(String[] groups) {
+    List<String> testGroups = Arrays.asList(groups);
+    if (!Collections.disjoint(testGroups, EnvironmentConfig.getLeanProfileDisabledGroups())) {
+      return DEFAULT;
+    }
+    if (Boolean.getBoolean("leanProfile")
+            || !Collections.disjoint(testGroups, EnvironmentConfig.getLeanProfileEnabledGroups())) {
+      return LEAN;
+    }
+    return DEFAULT;
+  }
+
+  /**
+   * Gets the Chrome host resolver rules that make the blocked hosts unresolvable.
+   * @return the value of the host-resolver-rules argument, empty if no host is blocked
+   */
+  static String getHostResolverRules() {
+    return EnvironmentConfig.getLeanProfileBlockedHosts().stream()
+            .map(host -> "MAP " + host + " ~NOTFOUND")
+            .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Gets a proxy auto-config url that sends the blocked hosts to an unreachable proxy. Used by
+   * Firefox, which has no host resolver rules.
+   * @return the PAC script as a data url
+   */
+  static String getProxyAutoConfigUrl() {
+    String blockedHostsCondition = EnvironmentConfig.getLeanProfileBlockedHosts().stream()
+            .map(host -> "shExpMatch(host, '" + host + "')")
+            .collect(Collectors.joining(" || "));
+    String pacScript = "function FindProxyForURL(url, host) {"
+            + " return (" + blockedHostsCondition + ") ? '" + BLOCKING_PROXY + "' : 'DIRECT'; }";
+    return "data:application/x-ns-proxy-autoconfig;base64,"
+            + Base64.getEncoder().encodeToString(pacScript.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -1,14 +1,29 @@
 package driver;
 
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import environment.EnvironmentConfig;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.firefox.FirefoxProfile;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.service.DriverService;
 
 public enum BrowserType implements DriverSetup {
 
@@ -17,10 +32,12 @@ public enum BrowserType implements DriverSetup {
        * Firefox Driver.
        *
        * @param capabilities list of desired capabilities
+       * @param profile the profile of the browser
        * @return FirefoxDriver object with the desired capabilities
        */
-      public RemoteWebDriver getWebDriverObject(DesiredCapabilities capabilities) {
-          return new FirefoxDriver(getOptions(capabilities));
+      public RemoteWebDriver getWebDriverObject(DesiredCapabilities capabilities,
+                                                BrowserProfile profile) {
+          return new FirefoxDriver(getOptions(capabilities, profile));
       }
 
       /**
@@ -28,30 +45,36 @@ public enum BrowserType implements DriverSetup {
        * to initialize a new RemoteWebDriver or FirefoxDriver.
        *
        * @param capabilities the capabilities to be merged with the FirefoxDriver object
+       * @param profile the profile of the browser
        * @return a FirefoxOptions object to be used by the new() RemoteWebDriver or FirefoxDriver
        */
-      public DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities) {
-          capabilities.setCapability(FirefoxOptions.FIREFOX_OPTIONS, getOptions(capabilities));
+      public DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities,
+                                                        BrowserProfile profile) {
+          capabilities.setCapability(FirefoxOptions.FIREFOX_OPTIONS,
+                  getOptions(capabilities, profile));
           return capabilities;
       }
 
+      /**
+       * Creates a geckodriver service to be shared by all the Firefox sessions.
+       *
+       * @return the not started GeckoDriverService
+       */
+      public DriverService createDriverService() {
+          return GeckoDriverService.createDefaultService();
+      }
+
       private @NotNull
-      FirefoxOptions getOptions(@NotNull DesiredCapabilities capabilities) {
-          FirefoxProfile testProfile = new FirefoxProfile();
-          // disable web notifications
-          testProfile.setPreference("dom.webnotifications.enabled", false);
-
-          // disable push notifications
-          testProfile.setPreference("dom.push.enabled", false);
-          testProfile.setPreference("geo.enabled", true);
-          testProfile.setPreference("geo.provider.use_corelocation", true);
-          testProfile.setPreference("geo.prompt.testing", true);
-          testProfile.setPreference("geo.prompt.testing.allow", true);
-          capabilities.setCapability(FirefoxDriver.PROFILE, testProfile);
+      FirefoxOptions getOptions(@NotNull DesiredCapabilities capabilities,
+                                BrowserProfile profile) {
+          // the profile is built and encoded once, and reused by all the sessions
+          capabilities.setCapability(FirefoxDriver.PROFILE,
+                  FirefoxProfileCache.getProfile(profile));
 
           FirefoxOptions options = new FirefoxOptions();
           options.addArguments("--width=1920");
           options.addArguments("--height=1080");
+          options.setHeadless(profile == BrowserProfile.LEAN);
           options.merge(capabilities);
           return options;
       }
@@ -60,24 +83,37 @@ public enum BrowserType implements DriverSetup {
     /**
      * Chrome Driver.
      * @param capabilities list of desired capabilities
+     * @param profile the profile of the browser
      * @return FirefoxDriver object with the desired capabilities
      */
-    public RemoteWebDriver getWebDriverObject(DesiredCapabilities capabilities) {
-      return new ChromeDriver(getOptions(capabilities));
+    public RemoteWebDriver getWebDriverObject(DesiredCapabilities capabilities,
+                                              BrowserProfile profile) {
+      return new ChromeDriver(getOptions(capabilities, profile));
     }
 
     /**
      * Gets the default ChromeOptions as DesiredCapabilities to initialize a new
      * RemoteWebDriver or ChromeDriver.
      * @param capabilities the capabilities to be merged with the ChromeOptions object
+     * @param profile the profile of the browser
      * @return a ChromeOptions object to be used by the new() RemoteWebDriver or ChromeDriver
      */
-    public DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities) {
-      capabilities.setCapability(ChromeOptions.CAPABILITY, getOptions(capabilities));
+    public DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities,
+                                                      BrowserProfile profile) {
+      capabilities.setCapability(ChromeOptions.CAPABILITY, getOptions(capabilities, profile));
       return capabilities;
     }
 
-    private @NotNull ChromeOptions getOptions(DesiredCapabilities capabilities) {
+    /**
+     * Creates a chromedriver service to be shared by all the Chrome sessions.
+     * @return the not started ChromeDriverService
+     */
+    public DriverService createDriverService() {
+      return ChromeDriverService.createDefaultService();
+    }
+
+    private @NotNull ChromeOptions getOptions(DesiredCapabilities capabilities,
+                                              BrowserProfile profile) {
       HashMap<String, Object> chromePreferences = new HashMap<>();
       chromePreferences.put("profile.password_manager_enabled", false);
       chromePreferences.put("credentials_enable_service", false);
@@ -91,9 +127,180 @@ public enum BrowserType implements DriverSetup {
       options.addArguments("unexpectedAlertBehaviour=accept");
       options.addArguments("no-default-browser-check");
       options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+
+      if (profile == BrowserProfile.LEAN) {
+        options.setHeadless(true);
+        if (EnvironmentConfig.isLeanProfileBlockingImages()) {
+          chromePreferences.put("profile.managed_default_content_settings.images", 2);
+        }
+        // make the blocked hosts unresolvable
+        String hostResolverRules = BrowserProfile.getHostResolverRules();
+        if (!hostResolverRules.isEmpty()) {
+          options.addArguments("host-resolver-rules=" + hostResolverRules);
+        }
+      }
       options.setExperimentalOption("prefs", chromePreferences);
       options.merge(capabilities);
       return options;
     }
+  },
+  HTMLUNIT {
+    /**
+     * HtmlUnit Driver. Runs in the JVM without JavaScript, for the checks of the server rendered
+     * content. The profile doesn't apply, HtmlUnit is headless and doesn't load images.
+     * @param capabilities list of desired capabilities
+     * @param profile the profile of the browser
+     * @return HtmlUnitDriver object
+     */
+    public WebDriver getWebDriverObject(DesiredCapabilities capabilities,
+                                        BrowserProfile profile) {
+      return new HtmlUnitDriver(BROWSER_VERSION, false);
+    }
+
+    /**
+     * Gets the HtmlUnit capabilities to start a RemoteWebDriver on the selenium grid.
+     * @param capabilities the capabilities to be merged with the HtmlUnit capabilities
+     * @param profile the profile of the browser
+     * @return the HtmlUnit capabilities without JavaScript
+     */
+    public DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities,
+                                                      BrowserProfile profile) {
+      DesiredCapabilities htmlUnitCapabilities = DesiredCapabilities.htmlUnit();
+      htmlUnitCapabilities.setJavascriptEnabled(false);
+      return htmlUnitCapabilities.merge(capabilities);
+    }
+
+    /**
+     * HtmlUnit runs in the JVM, there is no driver process.
+     * @return null
+     */
+    public DriverService createDriverService() {
+      return null;
+    }
+
+    @Override
+    public boolean isJavascriptEnabled() {
+      return false;
+    }
+
+    @Override
+    String readUserAgent(WebDriver webDriver) {
+      return BROWSER_VERSION.getUserAgent();
+    }
+
+    @Override
+    public PageLoadStrategy getPageLoadStrategy() {
+      // HtmlUnit loads the pages in the calling thread, there is nothing to wait in background
+      return PageLoadStrategy.NORMAL;
+    }
+  };
+
+  /**
+   * Browser emulated by HtmlUnit.
+   */
+  private static final BrowserVersion BROWSER_VERSION = BrowserVersion.BEST_SUPPORTED;
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(BrowserType.class);
+
+  /**
+   * Driver service shared by all the sessions of this browser type. Null unless started with
+   * startSharedDriverService().
+   */
+  private DriverService sharedDriverService;
+
+  /**
+   * Selects the browser of a test from its groups. The groups listed for a browser in the
+   * browser-groups section of the config file use that browser, the other tests use the browser
+   * passed in the command line.
+   * @param groups the groups of the test
+   * @param defaultBrowserType the browser passed in the command line
+   * @return the BrowserType to be used by the test
+   */
+  public static BrowserType forGroups(String[] groups, BrowserType defaultBrowserType) {
+    List<String> testGroups = Arrays.asList(groups);
+    for (Map.Entry<String, List<String>> browserGroups
+            : EnvironmentConfig.getBrowserGroups().entrySet()) {
+      if (null != browserGroups.getValue()
+              && testGroups.stream().anyMatch(browserGroups.getValue()::contains)) {
+        return valueOf(browserGroups.getKey().toUpperCase());
+      }
+    }
+    return defaultBrowserType;
+  }
+
+  /**
+   * Tells if the browser runs the JavaScript of the pages. Scripts can't be executed in the
+   * browsers without JavaScript.
+   * @return true if the browser runs JavaScript
+   */
+  public boolean isJavascriptEnabled() {
+    return true;
+  }
+
+  /**
+   * Gets the page load strategy of the browser: -DpageLoadStrategy for all the browsers, or the
+   * strategy of the browser in the page-load-strategy section of the config file.
+   * @return the PageLoadStrategy, NORMAL by default
+   */
+  public PageLoadStrategy getPageLoadStrategy() {
+    String strategy = System.getProperty("pageLoadStrategy",
+            EnvironmentConfig.getPageLoadStrategy(name().toLowerCase()));
+    return null == strategy ? PageLoadStrategy.NORMAL
+            : PageLoadStrategy.valueOf(strategy.toUpperCase());
+  }
+
+  /**
+   * Reads the user agent of a started browser.
+   * @param webDriver the started WebDriver
+   * @return the user agent
+   */
+  String readUserAgent(WebDriver webDriver) {
+    return (String) ((JavascriptExecutor) webDriver).executeScript("return navigator.userAgent;");
+  }
+
+  /**
+   * Starts one driver process (chromedriver, geckodriver) to be shared by all the sessions of
+   * this browser type, instead of one driver process per session.
+   */
+  public synchronized void startSharedDriverService() {
+    if (null != sharedDriverService) {
+      return;
+    }
+    DriverService driverService = createDriverService();
+    if (null == driverService) {
+      logger.info("{} runs in the JVM, there is no driver service to share", this);
+      return;
+    }
+    try {
+      driverService.start();
+    } catch (IOException e) {
+      logger.error("Unable to start the shared {} driver service", this, e);
+      throw new IllegalStateException("The shared driver service could not be started", e);
+    }
+    sharedDriverService = driverService;
+    DriverProcessReaper.recordChildDrivers();
+    logger.info("Shared {} driver service started at {}", this, sharedDriverService.getUrl());
+  }
+
+  /**
+   * Gets the url of the shared driver service.
+   * @return the url of the driver service, or null if the shared driver service is not running
+   */
+  public synchronized URL getSharedDriverServiceUrl() {
+    return null == sharedDriverService ? null : sharedDriverService.getUrl();
+  }
+
+  /**
+   * Stops the shared driver service if it was started.
+   */
+  public synchronized void stopSharedDriverService() {
+    if (null != sharedDriverService) {
+      logger.info("Stopping the shared {} driver service", this);
+      sharedDriverService.stop();
+      sharedDriverService = null;
+    }
   }
 }
@@ -1,15 +1,15 @@
 package driver;
 
 import environment.EnvironmentConfig;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
-import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
 
 public class DriverBase {
@@ -20,17 +20,26 @@ public class DriverBase {
   protected static final Logger logger = LogManager.getLogger(DriverBase.class);
 
   private static final String THREAD_ID = "threadId";
+  private static final String DEFAULT_MAX_SESSION_REUSE = "25";
+  private static final String DEFAULT_SESSION_IDLE_TIMEOUT = "300";
 
   /**
-   * List of safe WebDriverThreads to keep each WebDriver in a different thread.
+   * Registry keeping each DriverFactory and each WebDriver isolated in each running test.
    */
-  private static final List<DriverFactory> webDriverThreadPool = Collections
-          .synchronizedList(new ArrayList<>());
+  private static DriverRegistry driverRegistry;
 
   /**
-   * ThreadLocal variable to store individually each driver in each thread.
+   * Pool of browser sessions shared by all the threads. Bounds the number of browsers alive at
+   * the same time. When session reuse is disabled with -DreuseSessions=false each session serves
+   * only one test.
    */
-  private static ThreadLocal<DriverFactory> driverThread;
+  private static SessionPool sessionPool;
+
+  /**
+   * Starts the replacement of the sessions quit by the pool in background. Null unless enabled
+   * with -DprewarmSessions=true.
+   */
+  private static SessionPrewarmer sessionPrewarmer;
 
   /**
    * Protected constructor.
@@ -39,9 +48,8 @@ public class DriverBase {
   }
 
   /**
-   * Instantiate the DriverFactory object at the beginning of the test suite, and store it in
-   * a ThreadLocal variable to keep each DriverFactory and each WebDriver isolated in each
-   * thread.
+   * Instantiate the DriverRegistry at the beginning of the test suite, to keep each DriverFactory
+   * and each WebDriver isolated in each running test.
    */
   @BeforeSuite(alwaysRun = true)
   public static void startSuite() {
@@ -49,23 +57,42 @@ public class DriverBase {
     ThreadContext.put(THREAD_ID, Thread.currentThread().getName());
     EnvironmentConfig.initializeEnvironment();
 
-    // Instantiates and stores the WebDriver into the ThreadLocal variable
-    driverThread = ThreadLocal.withInitial(() -> {
-      /*
-       The following instruction is used to tell log4j which file the log will be written to
-       depending on the thread name. The thread name is used as the value threadId that is used as
-       the routing key in the routing appender. Check the log4j2.xml config file.
-       For more info check here:
-       https://stackoverflow.com/questions/8355847/how-to-log-multiple-threads-in-different-log-files
-       http://logging.apache.org/log4j/2.x/faq.html#separate_log_files
-      */
-      ThreadContext.put(THREAD_ID, Thread.currentThread().getName());
-
-      logger.trace("Instantiate WebDriver");
-      DriverFactory webDriverThread = new DriverFactory();
-      webDriverThreadPool.add(webDriverThread);
-      return webDriverThread;
-    });
+    // Kill the drivers and browsers left by previous runs, only if enabled in the command line
+    if (Boolean.getBoolean("reapOrphanedDrivers")) {
+      DriverProcessReaper.reapOrphanedDrivers();
+    }
+
+    // Sessions are reused between tests unless disabled in the command line. The accounts
+    // provisioned in the browser take a session while the tests run, one more by default
+    int defaultPoolSize = Integer.parseInt(System.getProperty("threads", "1"))
+            + (Boolean.getBoolean("provisionAccounts") ? 1 : 0);
+    int poolSize = Integer.parseInt(System.getProperty("sessionPoolSize",
+            String.valueOf(defaultPoolSize)));
+    int maxReuse = 1;
+    if (Boolean.parseBoolean(System.getProperty("reuseSessions", "true"))) {
+      maxReuse = Integer.parseInt(System.getProperty("maxSessionReuse",
+              DEFAULT_MAX_SESSION_REUSE));
+    }
+    // Sessions are replaced before maxReuse when they get too old, slow or big
+    sessionPool = new SessionPool(poolSize, maxReuse, SessionHealthLimits.fromSystemProperties());
+
+    // One driver process shared by all the local sessions, only if enabled in the command line
+    boolean localBrowser = System.getProperty("gridURL", "").isEmpty();
+    if (Boolean.getBoolean("sharedDriverService") && localBrowser) {
+      DriverFactory.readBrowserType().startSharedDriverService();
+    }
+
+    // Spare sessions are started in background only if enabled in the command line
+    if (Boolean.getBoolean("prewarmSessions")) {
+      int threads = Integer.parseInt(System.getProperty("threads", "1"));
+      sessionPrewarmer = new SessionPrewarmer(threads);
+    }
+
+    // Instantiates a DriverFactory when more tests than ever run at the same time
+    Duration sessionIdleTimeout = Duration.ofSeconds(Long.parseLong(
+            System.getProperty("sessionIdleTimeout", DEFAULT_SESSION_IDLE_TIMEOUT)));
+    driverRegistry = new DriverRegistry(() -> new DriverFactory(sessionPool, sessionPrewarmer),
+            sessionPool, sessionIdleTimeout);
   }
 
   /**
@@ -73,11 +100,42 @@ public class DriverBase {
    *
    * @return the instantiated WebDriver
    */
-  public static RemoteWebDriver getDriver() {
+  public static WebDriver getDriver() {
     logger.trace("Get the WebDriver");
 
-    // Gets the WebDriver stored in the ThreadLocal variable
-    return driverThread.get().getDriver();
+    // Gets the WebDriver of the current thread
+    return driverRegistry.getFactory().getDriver();
+  }
+
+  /**
+   * Gets the WorkerSlot of the current test, keeping the state of the test whatever thread runs
+   * it: its report step counter, its log file and the attributes of its page objects.
+   *
+   * @return the WorkerSlot of the current test
+   */
+  public static WorkerSlot getWorkerSlot() {
+    return driverRegistry.getSlot();
+  }
+
+  /**
+   * Gets the information of the current browser session, captured when the session was started.
+   * Reading it doesn't send any command to the browser.
+   *
+   * @return the SessionInfo of the current session
+   */
+  public static SessionInfo getSessionInfo() {
+    return driverRegistry.getFactory().getSessionInfo();
+  }
+
+  /**
+   * Records a url the current test navigated to, so that the cookies and storage of its domain
+   * are cleared before the browser is reused by another test. The domains of the pages open at
+   * the end of the test are recorded anyway; this is for the pages the test navigated away from.
+   *
+   * @param url the url
+   */
+  public static void recordVisitedUrl(String url) {
+    driverRegistry.getFactory().recordVisitedUrl(url);
   }
 
   /**
@@ -87,24 +145,63 @@ public class DriverBase {
    */
   public static BrowserType getBrowserType() {
     logger.trace("Get the BrowserType");
-    return driverThread.get().getBrowserType();
+    return driverRegistry.getFactory().getBrowserType();
   }
 
   /**
-   * Quit the browser between tests.
+   * Selects the browser profile of the test from its groups, before the test gets its browser.
+   *
+   * @param testResult the test about to be executed
+   */
+  @BeforeMethod(alwaysRun = true)
+  public static void selectBrowserProfile(ITestResult testResult) {
+    BrowserProfile profile = BrowserProfile.forGroups(testResult.getMethod().getGroups());
+    logger.trace("Browser profile of the test: {}", profile);
+    driverRegistry.getFactory().setBrowserProfile(profile);
+  }
+
+  /**
+   * Selects the browser of the test from its groups, before the test gets its browser. Tests
+   * without a group listed in browser-groups use the browser passed in the command line.
+   *
+   * @param testResult the test about to be executed
+   */
+  @BeforeMethod(alwaysRun = true)
+  public static void selectBrowserType(ITestResult testResult) {
+    DriverFactory factory = driverRegistry.getFactory();
+    BrowserType browserType = BrowserType.forGroups(testResult.getMethod().getGroups(),
+            factory.getSelectedBrowserType());
+    logger.trace("Browser of the test: {}", browserType);
+    factory.setBrowserType(browserType);
+  }
+
+  /**
+   * Gets the profile of the browser used by the current test.
+   *
+   * @return BrowserProfile
+   */
+  public static BrowserProfile getBrowserProfile() {
+    return driverRegistry.getFactory().getBrowserProfile();
+  }
+
+  /**
+   * Gives the browser back to the session pool between tests, or quits it if session reuse is
+   * disabled, and gives the WorkerSlot of the test back for the next test.
    */
   @AfterMethod(alwaysRun = true)
   public static void quitWebDriver() {
     try {
-      logger.trace("Quit WebDriver");
-      driverThread.get().quitDriver();
+      logger.trace("Release WebDriver");
+      driverRegistry.getFactory().releaseDriver();
     } catch (Exception ex) {
-      logger.error("Unable to quit WebDriver", ex);
+      logger.error("Unable to release WebDriver", ex);
+    } finally {
+      driverRegistry.releaseSlot();
     }
   }
 
   /**
-   * Safely quits all the WebDrivers in the ThreadPool.
+   * Safely quits all the WebDrivers of the registry and the session pool.
    */
   @AfterSuite(alwaysRun = true)
   public static void finishSuite() {
@@ -118,13 +215,16 @@ public class DriverBase {
     */
     ThreadContext.put(THREAD_ID, Thread.currentThread().getName());
 
-    int index = 0;
-    for (DriverFactory webDriverThread : webDriverThreadPool) {
-      logger.trace("Quit WebDriver {}", index);
-      index++;
-      webDriverThread.quitDriver();
+    driverRegistry.shutdown();
+    // the spare sessions being started are added to the pool before it is shut down
+    if (null != sessionPrewarmer) {
+      sessionPrewarmer.shutdown();
+    }
+    logger.trace("Quit the idle sessions of the session pool");
+    sessionPool.shutdown();
+    for (BrowserType browserType : BrowserType.values()) {
+      browserType.stopSharedDriverService();
     }
-    logger.trace("Remove WebDriver from ThreadLocal");
-    driverThread.remove();
+    DriverProcessReaper.reapChildDrivers();
   }
 }
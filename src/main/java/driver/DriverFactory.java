@@ -2,23 +2,69 @@ package driver;
 
 import static driver.BrowserType.CHROME;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 public class DriverFactory {
 
   /**
-   * The WebDriver used in the tests.
+   * The browser session used in the tests.
    */
-  private RemoteWebDriver webDriver;
+  private DriverSession driverSession;
 
   /**
-   * Stores the selected driver type to use on the tests. Can be CHROME or FIREFOX.
+   * Pool the sessions are borrowed from. Null when each test starts its own browser.
+   */
+  private final SessionPool sessionPool;
+
+  /**
+   * Starts the spare sessions of the pool in background. Null when the sessions are started on
+   * demand.
+   */
+  private final SessionPrewarmer sessionPrewarmer;
+
+  /**
+   * True when the replacement of the current session was started in background when the session
+   * was handed out, because it serves its last test.
+   */
+  private boolean replacementPrewarmed;
+
+  /**
+   * The profile requested by the current test.
+   */
+  private BrowserProfile browserProfile = BrowserProfile.DEFAULT;
+
+  /**
+   * Stores the selected driver type to use on the tests. Can be CHROME, FIREFOX or HTMLUNIT.
    */
   private final BrowserType selectedBrowserType;
 
+  /**
+   * The browser requested by the current test. The selected one unless the groups of the test
+   * ask for another one.
+   */
+  private BrowserType requestedBrowserType;
+
+  /**
+   * Url of the selenium grid passed as -DgridURL. Null when using a local browser.
+   */
+  private final URL gridUrl;
+
   /**
    * The logger.
    */
@@ -39,12 +85,54 @@ public class DriverFactory {
    */
   private final String javaVersion = System.getProperty("java.version");
 
+  /**
+   * Timeout in seconds of the asynchronous scripts, as the event waits of the page objects.
+   */
+  private final long scriptTimeout = Long.getLong("scriptTimeout", 60);
+
 
   /**
    * Constructor of the DriverFactory class. Reads the browser value passed
    * as an argument on the command line.
    */
   public DriverFactory() {
+    this(null, null);
+  }
+
+  /**
+   * Constructor of the DriverFactory class when the sessions are borrowed from a pool and/or
+   * started in background.
+   * @param sessionPool the pool to borrow the sessions from, or null to start a new browser
+   *                    for each test
+   * @param sessionPrewarmer starts the replacement of the sessions quit by the pool in
+   *                         background, or null to start the sessions on demand. Only used with
+   *                         a session pool
+   */
+  public DriverFactory(SessionPool sessionPool, SessionPrewarmer sessionPrewarmer) {
+    this.sessionPool = sessionPool;
+    this.sessionPrewarmer = sessionPrewarmer;
+    selectedBrowserType = readBrowserType();
+    requestedBrowserType = selectedBrowserType;
+
+    // reads the command line argument gridURL
+    String grid = System.getProperty("gridURL", "");
+    if (grid.isEmpty()) {
+      gridUrl = null;
+    } else {
+      try {
+        gridUrl = new URL(grid);
+      } catch (MalformedURLException e) {
+        logger.error("The grid URL format '{}' is not correct.", grid, e);
+        throw new IllegalArgumentException("Invalid grid URL: " + grid, e);
+      }
+    }
+  }
+
+  /**
+   * Reads the browser value passed as an argument on the command line.
+   * @return the selected BrowserType, CHROME by default
+   */
+  static BrowserType readBrowserType() {
     // By default, the driver type is CHROME
     BrowserType browserType = CHROME;
 
@@ -55,20 +143,94 @@ public class DriverFactory {
     } catch (IllegalArgumentException ignored) {
       logger.debug("An unknown driver specified, defaulting to '{}'", browserType, ignored);
     }
-    selectedBrowserType = browserType;
+    return browserType;
   }
 
   /**
-   * Gets an instantiated WebDriver of the type defined in the browser argument of the command
-   * line. If there is a WebDriver already instantiated it returns that one.
+   * Gets an instantiated WebDriver of the type requested by the current test, by default the
+   * browser argument of the command line. If there is a WebDriver already instantiated it returns
+   * that one.
    * @return an instantiated WebDriver object
    */
-  public RemoteWebDriver getDriver() {
-    if (null == webDriver) {
-      logger.trace("Starting WebDriver");
-      instantiateWebDriver(selectedBrowserType);
+  public WebDriver getDriver() {
+    if (null == driverSession) {
+      BrowserType type = requestedBrowserType;
+      BrowserProfile profile = browserProfile;
+      if (null != sessionPool) {
+        logger.trace("Borrowing {} {} WebDriver from the session pool", type, profile);
+        driverSession = sessionPool.acquire(type, profile,
+                () -> instantiateSession(type, profile));
+        // the session is quit at the end of this test, its replacement starts during the test
+        replacementPrewarmed = null != sessionPrewarmer && sessionPool.isLastUse(driverSession)
+                && sessionPool.prewarm(sessionPrewarmer, () -> instantiateSession(type, profile));
+      } else {
+        logger.trace("Starting {} {} WebDriver", type, profile);
+        driverSession = instantiateSession(type, profile);
+      }
+    }
+    return driverSession.getWebDriver();
+  }
+
+  /**
+   * Sets the profile of the browser used by the next test. Only applies to the sessions
+   * obtained after the current one is released.
+   * @param browserProfile the BrowserProfile
+   */
+  public void setBrowserProfile(BrowserProfile browserProfile) {
+    this.browserProfile = browserProfile;
+  }
+
+  /**
+   * Gets the profile of the browser used by the current test.
+   * @return BrowserProfile
+   */
+  public BrowserProfile getBrowserProfile() {
+    return null == driverSession ? browserProfile : driverSession.getProfile();
+  }
+
+  /**
+   * Gets the information of the current session, captured when the session was started.
+   * Starts a session if there is none.
+   * @return SessionInfo
+   */
+  public SessionInfo getSessionInfo() {
+    getDriver();
+    return driverSession.getSessionInfo();
+  }
+
+  /**
+   * Records a url the current session navigated to, its cookies and storage are cleared when the
+   * session is given back to the pool.
+   * @param url the url
+   */
+  public void recordVisitedUrl(String url) {
+    if (null != driverSession) {
+      driverSession.recordVisitedUrl(url);
+    }
+  }
+
+  /**
+   * Gives the WebDriver back to the session pool at the end of a test. Without a session pool
+   * the WebDriver is quit. When pre-warming is enabled, the replacement of a session serving its
+   * last test was started when the session was handed out. The sessions quit for a failed reset
+   * or a health limit are only known to be quit here, their replacement is started in background
+   * while the next test is prepared.
+   */
+  public void releaseDriver() {
+    if (null == sessionPool) {
+      quitDriver();
+    } else if (null != driverSession) {
+      logger.trace("Returning WebDriver to the session pool");
+      DriverSession session = driverSession;
+      driverSession = null;
+      boolean prewarmed = replacementPrewarmed;
+      replacementPrewarmed = false;
+      if (!sessionPool.release(session) && !prewarmed && null != sessionPrewarmer) {
+        BrowserType type = session.getBrowserType();
+        BrowserProfile profile = session.getProfile();
+        sessionPool.prewarm(sessionPrewarmer, () -> instantiateSession(type, profile));
+      }
     }
-    return webDriver;
   }
 
   /**
@@ -76,42 +238,120 @@ public class DriverFactory {
    */
   public void quitDriver() {
     logger.trace("Closing Webdriver");
-    if (null != webDriver) {
-      webDriver.quit();
-      webDriver = null;
+    if (null != driverSession) {
+      if (null != sessionPool) {
+        sessionPool.discard(driverSession);
+      } else {
+        driverSession.quit();
+      }
+      driverSession = null;
+      replacementPrewarmed = false;
       logger.trace("Webdriver is closed and set to null");
     }
   }
 
   /**
-   * Gets the driver type. Can be CHROME or FIREFOX
+   * Sets the browser used by the next test. Only applies to the sessions obtained after the
+   * current one is released.
+   * @param browserType the BrowserType
+   */
+  public void setBrowserType(BrowserType browserType) {
+    requestedBrowserType = browserType;
+  }
+
+  /**
+   * Gets the browser passed in the command line. Can be CHROME, FIREFOX or HTMLUNIT.
+   * @return BrowserType
+   */
+  public BrowserType getSelectedBrowserType() {
+    return selectedBrowserType;
+  }
+
+  /**
+   * Gets the driver type used by the current test. Can be CHROME, FIREFOX or HTMLUNIT.
    * @return BrowserType
    */
   public BrowserType getBrowserType() {
     logger.trace("Getting browser type");
-    return selectedBrowserType;
+    return null == driverSession ? requestedBrowserType : driverSession.getBrowserType();
   }
 
-  private void instantiateWebDriver(BrowserType browserType) {
+  private DriverSession instantiateSession(BrowserType browserType, BrowserProfile profile) {
     logger.info("Local Operating System: {}", operatingSystem);
     logger.info("Local Architecture: {}", systemArchitecture);
     logger.info("Java Version: {}", javaVersion);
-    logger.info("Selected Browser: {}", selectedBrowserType);
+    logger.info("Selected Browser: {}", browserType);
+    logger.info("Browser profile: {}", profile);
+    logger.info("Selenium Grid: {}", null == gridUrl ? "none, local browser" : gridUrl);
 
     DesiredCapabilities desiredCapabilities = new DesiredCapabilities();
 
     // set template of the screen recording filename
     desiredCapabilities.setCapability("testFileNameTemplate", "{testName}");
 
-    // not using selenium grid, local browser
-    webDriver = browserType.getWebDriverObject(desiredCapabilities);
+    PageLoadStrategy pageLoadStrategy = browserType.getPageLoadStrategy();
+    logger.info("Page load strategy: {}", pageLoadStrategy);
+    desiredCapabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY, pageLoadStrategy);
 
+    Instant startTime = Instant.now();
+    WebDriver webDriver;
+    URL sharedDriverServiceUrl = browserType.getSharedDriverServiceUrl();
+    if (null != gridUrl) {
+      // selenium grid
+      webDriver = newRemoteWebDriver(gridUrl, browserType, profile, desiredCapabilities);
+    } else if (null != sharedDriverServiceUrl) {
+      // local browser driven by the driver process shared by all the sessions
+      webDriver = newRemoteWebDriver(sharedDriverServiceUrl, browserType, profile,
+              desiredCapabilities);
+    } else {
+      // not using selenium grid, local browser
+      webDriver = browserType.getWebDriverObject(desiredCapabilities, profile);
+      DriverProcessReaper.recordChildDrivers();
+    }
+    long creationMilliseconds = Duration.between(startTime, Instant.now()).toMillis();
 
-    logger.info("Browser version: {}", webDriver.getCapabilities()
-            .getCapability("browserVersion"));
+    // the default script timeout of some drivers is 0, too short for the asynchronous scripts
+    webDriver.manage().timeouts().setScriptTimeout(scriptTimeout, TimeUnit.SECONDS);
 
-    String userAgent = (String) webDriver.executeScript("return navigator.userAgent;");
+    // capture once the session information that doesn't change during the session
+    Capabilities capabilities = ((HasCapabilities) webDriver).getCapabilities();
+    String userAgent = browserType.readUserAgent(webDriver);
+    // the browsers running in the JVM have no remote session
+    String sessionId = webDriver instanceof RemoteWebDriver
+            ? ((RemoteWebDriver) webDriver).getSessionId().toString()
+            : UUID.randomUUID().toString();
+    SessionInfo sessionInfo = new SessionInfo(
+            capabilities.getBrowserName(),
+            String.valueOf(capabilities.getCapability("browserVersion")),
+            userAgent,
+            sessionId,
+            String.valueOf(capabilities.getPlatform()),
+            startTime,
+            creationMilliseconds);
 
+    logger.info("Browser version: {}", sessionInfo.getBrowserVersion());
     logger.info("User agent: {}", userAgent);
+    logger.info("Session started: {}", sessionInfo);
+    // the handles are not ordered, the first window is recorded to be kept at each reset
+    return new DriverSession(webDriver, browserType, profile, sessionInfo,
+            webDriver.getWindowHandle());
+  }
+
+  /**
+   * Starts a RemoteWebDriver session. All the remote sessions share the same keep-alive
+   * connections.
+   * @param remoteUrl url of the selenium grid or the driver service
+   * @param browserType the browser to start
+   * @param profile the profile of the browser
+   * @param desiredCapabilities the capabilities to be merged with the browser options
+   * @return the started RemoteWebDriver
+   */
+  private static RemoteWebDriver newRemoteWebDriver(URL remoteUrl, BrowserType browserType,
+                                                    BrowserProfile profile,
+                                                    DesiredCapabilities desiredCapabilities) {
+    HttpCommandExecutor executor = new HttpCommandExecutor(Collections.emptyMap(), remoteUrl,
+            SharedHttpClientFactory.getInstance());
+    return new RemoteWebDriver(executor,
+            browserType.getBrowserCapabilities(desiredCapabilities, profile));
   }
 }
@@ -0,0 +1,205 @@
+package driver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Kills the driver processes (chromedriver, geckodriver) and their browsers left behind when a
+ * session was not quit, so they don't pile up on the agents between runs. Only the driver
+ * processes started by the framework are killed: each driver process started by a session is
+ * recorded in the pid file, -DdriverPidFile, build/driver-processes.pid by default.
+ */
+public final class DriverProcessReaper {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(DriverProcessReaper.class);
+
+  private static final String DEFAULT_PID_FILE = "build/driver-processes.pid";
+
+  private static final List<String> DRIVER_EXECUTABLES = Arrays.asList("chromedriver",
+          "geckodriver");
+
+  /**
+   * Processes orphans are re-parented to when their parent dies.
+   */
+  private static final List<String> INIT_EXECUTABLES = Arrays.asList("init", "systemd",
+          "launchd");
+
+  /**
+   * Driver processes of this JVM already written in the pid file.
+   */
+  private static final Set<Long> recordedPids = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Private constructor.
+   */
+  private DriverProcessReaper() {
+  }
+
+  /**
+   * Writes in the pid file the driver processes started by this JVM not recorded yet. To be
+   * called after starting a local session or a driver service.
+   */
+  public static void recordChildDrivers() {
+    List<String> entries = ProcessHandle.current().children()
+            .filter(DriverProcessReaper::isDriver)
+            .filter(process -> recordedPids.add(process.pid()))
+            .map(DriverProcessReaper::toEntry)
+            .collect(Collectors.toList());
+    if (!entries.isEmpty()) {
+      updatePidFile(lines -> {
+        List<String> updated = new ArrayList<>(lines);
+        updated.addAll(entries);
+        return updated;
+      });
+    }
+  }
+
+  /**
+   * Kills the driver processes recorded in the pid file whose parent process is gone, and their
+   * browsers. Those are left by previous runs that were stopped before quitting the browsers.
+   * The entries of the processes that ended are removed from the pid file.
+   */
+  public static void reapOrphanedDrivers() {
+    Optional<String> currentUser = ProcessHandle.current().info().user();
+    updatePidFile(lines -> {
+      List<String> alive = new ArrayList<>();
+      for (String line : lines) {
+        Optional<ProcessHandle> recorded = fromEntry(line);
+        if (!recorded.isPresent()) {
+          continue;
+        }
+        ProcessHandle process = recorded.get();
+        if (process.info().user().equals(currentUser) && isOrphan(process)) {
+          logger.info("Killing orphaned driver process {}", process.pid());
+          destroyWithDescendants(process);
+        } else {
+          alive.add(line);
+        }
+      }
+      return alive;
+    });
+  }
+
+  /**
+   * Kills the driver processes started by this JVM that are still running, and their browsers.
+   * To be called once all the sessions were quit.
+   */
+  public static void reapChildDrivers() {
+    ProcessHandle.current().children()
+            .filter(DriverProcessReaper::isDriver)
+            .forEach(process -> {
+              logger.info("Killing driver process {} still running", process.pid());
+              destroyWithDescendants(process);
+            });
+  }
+
+  /**
+   * Checks if the executable of a process is one of the drivers, by its exact name.
+   */
+  private static boolean isDriver(ProcessHandle process) {
+    return process.info().command()
+            .map(command -> Paths.get(command).getFileName().toString())
+            .map(executable -> executable.endsWith(".exe")
+                    ? executable.substring(0, executable.length() - ".exe".length())
+                    : executable)
+            .map(DRIVER_EXECUTABLES::contains)
+            .orElse(false);
+  }
+
+  private static boolean isOrphan(ProcessHandle process) {
+    return process.parent()
+            .map(parent -> parent.pid() == 1 || parent.info().command()
+                    .map(command -> INIT_EXECUTABLES.stream().anyMatch(command::endsWith))
+                    .orElse(false))
+            .orElse(true);
+  }
+
+  /**
+   * Entry of the pid file: the pid and the start time of the process, so a recycled pid is not
+   * taken for the recorded driver.
+   */
+  private static String toEntry(ProcessHandle process) {
+    return process.pid() + " " + process.info().startInstant()
+            .map(instant -> String.valueOf(instant.toEpochMilli())).orElse("-1");
+  }
+
+  /**
+   * Gets the recorded driver process of an entry of the pid file.
+   * @return the process, or empty if it ended or its pid now belongs to another process
+   */
+  private static Optional<ProcessHandle> fromEntry(String entry) {
+    String[] fields = entry.trim().split(" ");
+    try {
+      long startMillis = fields.length > 1 ? Long.parseLong(fields[1]) : -1;
+      return ProcessHandle.of(Long.parseLong(fields[0]))
+              .filter(ProcessHandle::isAlive)
+              .filter(DriverProcessReaper::isDriver)
+              .filter(process -> startMillis < 0 || process.info().startInstant()
+                      .map(instant -> instant.toEpochMilli() == startMillis).orElse(true));
+    } catch (NumberFormatException e) {
+      logger.debug("Invalid entry '{}' in the driver pid file", entry, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Replaces the entries of the pid file, locked against the other runs using the same file.
+   */
+  private static synchronized void updatePidFile(UnaryOperator<List<String>> update) {
+    Path pidFile = Paths.get(System.getProperty("driverPidFile", DEFAULT_PID_FILE));
+    try {
+      Path directory = pidFile.toAbsolutePath().getParent();
+      if (null != directory) {
+        Files.createDirectories(directory);
+      }
+      try (FileChannel channel = FileChannel.open(pidFile, StandardOpenOption.CREATE,
+              StandardOpenOption.READ, StandardOpenOption.WRITE);
+           FileLock ignored = channel.lock()) {
+        ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+        int read;
+        do {
+          read = channel.read(content);
+        } while (read > 0 && content.hasRemaining());
+        List<String> lines = new String(content.array(), 0, content.position(),
+                StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+        List<String> updated = update.apply(lines);
+        channel.truncate(0);
+        channel.position(0);
+        String text = updated.isEmpty() ? "" : String.join("\n", updated) + "\n";
+        ByteBuffer output = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (output.hasRemaining()) {
+          channel.write(output);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Unable to update the driver pid file {}", pidFile, e);
+    }
+  }
+
+  private static void destroyWithDescendants(ProcessHandle process) {
+    process.descendants().forEach(ProcessHandle::destroy);
+    process.destroy();
+  }
+}
@@ -0,0 +1,164 @@
+package driver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+/**
+ * Keeps the WorkerSlot of each running test, with its DriverFactory. A thread borrows a free slot
+ * the first time it needs one and releases it at the end of its test, so the number of slots and
+ * DriverFactory instances is the number of tests running in parallel, whatever the number of
+ * threads. A background reaper releases the slots of the threads that are gone, quitting their
+ * browsers, and quits the sessions idle in the pool for too long.
+ */
+public class DriverRegistry {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(DriverRegistry.class);
+
+  private static final String THREAD_ID = "threadId";
+  private static final String SLOT_NAME_PREFIX = "worker-";
+  private static final long REAPER_PERIOD_SECONDS = 30;
+
+  /**
+   * The slot borrowed by each thread running a test.
+   */
+  private final ConcurrentMap<Thread, WorkerSlot> borrowedSlots = new ConcurrentHashMap<>();
+
+  /**
+   * The slots not borrowed, the last released first so its browser type is likely the same.
+   */
+  private final ConcurrentLinkedDeque<WorkerSlot> freeSlots = new ConcurrentLinkedDeque<>();
+
+  /**
+   * All the slots created.
+   */
+  private final CopyOnWriteArrayList<WorkerSlot> slots = new CopyOnWriteArrayList<>();
+  private final AtomicInteger slotNumber = new AtomicInteger();
+
+  private final Supplier<DriverFactory> factoryCreator;
+  private final SessionPool sessionPool;
+  private final Duration sessionIdleTimeout;
+  private final ScheduledExecutorService reaper;
+
+  /**
+   * Constructor of the DriverRegistry class. Starts the reaper.
+   * @param factoryCreator creates the DriverFactory of a new slot
+   * @param sessionPool the pool the factories borrow their sessions from
+   * @param sessionIdleTimeout time after which an idle session of the pool is quit
+   */
+  public DriverRegistry(Supplier<DriverFactory> factoryCreator, SessionPool sessionPool,
+                        Duration sessionIdleTimeout) {
+    this.factoryCreator = factoryCreator;
+    this.sessionPool = sessionPool;
+    this.sessionIdleTimeout = sessionIdleTimeout;
+    reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "driver-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    reaper.scheduleWithFixedDelay(this::reap, REAPER_PERIOD_SECONDS, REAPER_PERIOD_SECONDS,
+            TimeUnit.SECONDS);
+  }
+
+  /**
+   * Gets the slot of the current thread, borrowing a free slot or creating one the first time.
+   * @return WorkerSlot
+   */
+  public WorkerSlot getSlot() {
+    WorkerSlot slot = borrowedSlots.get(Thread.currentThread());
+    if (null != slot) {
+      return slot;
+    }
+    slot = freeSlots.pollFirst();
+    if (null == slot) {
+      logger.trace("Instantiate WebDriver");
+      slot = new WorkerSlot(SLOT_NAME_PREFIX + slotNumber.incrementAndGet(), factoryCreator.get());
+      slots.add(slot);
+    }
+    borrowedSlots.put(Thread.currentThread(), slot);
+
+    /*
+     The following instruction is used to tell log4j which file the log will be written to
+     depending on the slot name. The slot name is used as the value threadId that is used as the
+     routing key in the routing appender, so the log files don't grow with the number of threads.
+     Check the log4j2.xml config file.
+     For more info check here:
+     https://stackoverflow.com/questions/8355847/how-to-log-multiple-threads-in-different-log-files
+     http://logging.apache.org/log4j/2.x/faq.html#separate_log_files
+    */
+    ThreadContext.put(THREAD_ID, slot.getName());
+    return slot;
+  }
+
+  /**
+   * Gets the DriverFactory of the slot of the current thread.
+   * @return DriverFactory
+   */
+  public DriverFactory getFactory() {
+    return getSlot().getFactory();
+  }
+
+  /**
+   * Gives the slot of the current thread back, at the end of its test. Its browser must have
+   * been released.
+   */
+  public void releaseSlot() {
+    WorkerSlot slot = borrowedSlots.remove(Thread.currentThread());
+    if (null != slot) {
+      slot.clear();
+      freeSlots.addFirst(slot);
+    }
+  }
+
+  /**
+   * Releases the slots of the finished threads, quitting their WebDriver, and quits the idle
+   * sessions.
+   */
+  void reap() {
+    try {
+      for (Map.Entry<Thread, WorkerSlot> entry : borrowedSlots.entrySet()) {
+        WorkerSlot slot = entry.getValue();
+        if (!entry.getKey().isAlive() && borrowedSlots.remove(entry.getKey(), slot)) {
+          logger.debug("Thread {} is gone, quitting the WebDriver of {}",
+                  entry.getKey().getName(), slot.getName());
+          slot.getFactory().quitDriver();
+          slot.clear();
+          freeSlots.addFirst(slot);
+        }
+      }
+      sessionPool.evictIdleSessions(sessionIdleTimeout);
+    } catch (Exception e) {
+      // an exception would cancel the next executions of the reaper
+      logger.error("Exception reaping the WebDrivers", e);
+    }
+  }
+
+  /**
+   * Stops the reaper and quits the WebDrivers of all the slots.
+   */
+  public void shutdown() {
+    reaper.shutdownNow();
+    for (WorkerSlot slot : slots) {
+      logger.trace("Quit WebDriver of {}", slot.getName());
+      slot.getFactory().quitDriver();
+    }
+    logger.info("{} worker slots used by the tests", slots.size());
+    borrowedSlots.clear();
+    freeSlots.clear();
+    slots.clear();
+  }
+}
@@ -0,0 +1,188 @@
+package driver;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * A browser session handed out by the SessionPool. Keeps track of how many tests have used it so
+ * the pool can retire it after the configured number of reuses.
+ */
+public class DriverSession {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(DriverSession.class);
+
+  /**
+   * The WebDriver of this session.
+   */
+  private final WebDriver webDriver;
+
+  /**
+   * The browser of this session.
+   */
+  private final BrowserType browserType;
+
+  /**
+   * The profile the browser was started with.
+   */
+  private final BrowserProfile profile;
+
+  /**
+   * Information about the session captured when it was started.
+   */
+  private final SessionInfo sessionInfo;
+
+  /**
+   * Handle of the window the browser was started with, kept open when the session is reset.
+   */
+  private final String mainWindowHandle;
+
+  /**
+   * Origins (scheme, host and port) the current test navigated to, whose cookies and storage are
+   * cleared when the session is reset.
+   */
+  private final Set<String> visitedOrigins = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Health metrics of the session, used to decide when to replace it.
+   */
+  private final SessionHealth health;
+
+  /**
+   * Number of tests that have used this session.
+   */
+  private int testsServed;
+
+  /**
+   * When the session was last given back to the pool.
+   */
+  private volatile Instant idleSince = Instant.now();
+
+  /**
+   * Constructor of the DriverSession class.
+   * @param webDriver the started WebDriver
+   * @param browserType the browser of the session
+   * @param profile the profile the browser was started with
+   * @param sessionInfo information about the session captured when it was started
+   * @param mainWindowHandle handle of the window the browser was started with
+   */
+  public DriverSession(WebDriver webDriver, BrowserType browserType, BrowserProfile profile,
+                       SessionInfo sessionInfo, String mainWindowHandle) {
+    this.webDriver = webDriver;
+    this.mainWindowHandle = mainWindowHandle;
+    this.browserType = browserType;
+    this.profile = profile;
+    this.sessionInfo = sessionInfo;
+    this.health = new SessionHealth(sessionInfo.getStartTime());
+  }
+
+  public WebDriver getWebDriver() {
+    return webDriver;
+  }
+
+  public BrowserType getBrowserType() {
+    return browserType;
+  }
+
+  public BrowserProfile getProfile() {
+    return profile;
+  }
+
+  public SessionInfo getSessionInfo() {
+    return sessionInfo;
+  }
+
+  public SessionHealth getHealth() {
+    return health;
+  }
+
+  public String getMainWindowHandle() {
+    return mainWindowHandle;
+  }
+
+  /**
+   * Records the origin of a url the browser navigated to, so that its cookies and storage are
+   * cleared when the session is reset. Only http and https urls have cookies.
+   * @param url the url
+   */
+  public void recordVisitedUrl(String url) {
+    String origin = getOrigin(url);
+    if (null != origin) {
+      visitedOrigins.add(origin);
+    }
+  }
+
+  /**
+   * Gets the origin of a url, the part its cookies and storage depend on.
+   * @param url the url
+   * @return scheme://host[:port], or null if the url is not an http or https url
+   */
+  static String getOrigin(String url) {
+    try {
+      URI uri = URI.create(url);
+      String scheme = uri.getScheme();
+      if (null == uri.getHost() || !("http".equalsIgnoreCase(scheme)
+              || "https".equalsIgnoreCase(scheme))) {
+        return null;
+      }
+      return scheme.toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+              + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+    } catch (IllegalArgumentException e) {
+      logger.debug("Unable to read the origin of {}", url, e);
+      return null;
+    }
+  }
+
+  /**
+   * Gets and forgets the origins visited since the last call.
+   * @return the origins, as scheme://host[:port]
+   */
+  List<String> takeVisitedOrigins() {
+    List<String> origins = new ArrayList<>(visitedOrigins);
+    visitedOrigins.removeAll(origins);
+    return origins;
+  }
+
+  public int getTestsServed() {
+    return testsServed;
+  }
+
+  public Instant getIdleSince() {
+    return idleSince;
+  }
+
+  /**
+   * Marks the session as idle from now.
+   */
+  void markIdle() {
+    idleSince = Instant.now();
+  }
+
+  /**
+   * Increments the number of tests served by this session.
+   */
+  void incrementTestsServed() {
+    testsServed++;
+  }
+
+  /**
+   * Safely quits the browser of this session.
+   */
+  void quit() {
+    try {
+      webDriver.quit();
+    } catch (Exception e) {
+      logger.error("Unable to quit the WebDriver session", e);
+    }
+  }
+}
@@ -1,9 +1,15 @@
 package driver;
 
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
-import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.service.DriverService;
 
 public interface DriverSetup {
-  RemoteWebDriver getWebDriverObject(DesiredCapabilities capabilities);
+  WebDriver getWebDriverObject(DesiredCapabilities capabilities, BrowserProfile profile);
+
+  DesiredCapabilities getBrowserCapabilities(DesiredCapabilities capabilities,
+                                             BrowserProfile profile);
+
+  DriverService createDriverService();
 }
 
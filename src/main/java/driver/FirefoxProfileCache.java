@@ -0,0 +1,103 @@
+package driver;
+
+import environment.EnvironmentConfig;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.firefox.FirefoxProfile;
+
+/**
+ * Builds the Firefox profile of each BrowserProfile once per suite. Selenium zips and encodes
+ * the profile each time a session is started, the cached profiles do it only the first time and
+ * reuse the encoded profile for the following sessions.
+ */
+public final class FirefoxProfileCache {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(FirefoxProfileCache.class);
+
+  private static final Map<BrowserProfile, FirefoxProfile> profiles = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor.
+   */
+  private FirefoxProfileCache() {
+  }
+
+  /**
+   * Gets the Firefox profile to be used with a browser profile. The Firefox profile must not be
+   * modified, the changes would not be sent to the new sessions.
+   * @param profile the profile of the browser
+   * @return the cached FirefoxProfile
+   */
+  public static FirefoxProfile getProfile(BrowserProfile profile) {
+    return profiles.computeIfAbsent(profile, FirefoxProfileCache::createProfile);
+  }
+
+  private static FirefoxProfile createProfile(BrowserProfile profile) {
+    // the profile can start as a copy of a template profile directory
+    String template = System.getProperty("firefoxProfileTemplate", "");
+    FirefoxProfile testProfile;
+    if (template.isEmpty()) {
+      testProfile = new CachedFirefoxProfile();
+    } else {
+      logger.debug("Using the Firefox profile template {}", template);
+      testProfile = new CachedFirefoxProfile(new File(template));
+    }
+
+    // disable web notifications
+    testProfile.setPreference("dom.webnotifications.enabled", false);
+
+    // disable push notifications
+    testProfile.setPreference("dom.push.enabled", false);
+    testProfile.setPreference("geo.enabled", true);
+    testProfile.setPreference("geo.provider.use_corelocation", true);
+    testProfile.setPreference("geo.prompt.testing", true);
+    testProfile.setPreference("geo.prompt.testing.allow", true);
+
+    if (profile == BrowserProfile.LEAN) {
+      if (EnvironmentConfig.isLeanProfileBlockingImages()) {
+        testProfile.setPreference("permissions.default.image", 2);
+      }
+      // send the blocked hosts to an unreachable proxy
+      if (!EnvironmentConfig.getLeanProfileBlockedHosts().isEmpty()) {
+        testProfile.setPreference("network.proxy.type", 2);
+        testProfile.setPreference("network.proxy.autoconfig_url",
+                BrowserProfile.getProxyAutoConfigUrl());
+      }
+    }
+    return testProfile;
+  }
+
+  /**
+   * Firefox profile that encodes itself only once.
+   */
+  private static final class CachedFirefoxProfile extends FirefoxProfile {
+
+    private String json;
+
+    CachedFirefoxProfile() {
+      super();
+    }
+
+    CachedFirefoxProfile(File templateDirectory) {
+      super(templateDirectory);
+    }
+
+    @Override
+    public synchronized String toJson() throws IOException {
+      if (null == json) {
+        long start = System.currentTimeMillis();
+        json = super.toJson();
+        logger.info("Firefox profile encoded in {} ms, reused by the next sessions",
+                System.currentTimeMillis() - start);
+      }
+      return json;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package driver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Health metrics of a browser session: age, latency of the last commands sent by the pool and JS
+ * heap size of the last page. Sampled when the session is checked and reset between tests, so
+ * the tests don't pay any extra command.
+ */
+public class SessionHealth {
+
+  /**
+   * Number of latency samples the median is calculated from.
+   */
+  private static final int LATENCY_SAMPLES = 20;
+
+  private final Instant startTime;
+  private final Deque<Long> commandLatencies = new ArrayDeque<>();
+  private Long jsHeapSize;
+
+  /**
+   * Constructor of the SessionHealth class.
+   * @param startTime when the session was started
+   */
+  public SessionHealth(Instant startTime) {
+    this.startTime = startTime;
+  }
+
+  /**
+   * Records the time a command took.
+   * @param milliseconds duration of the command
+   */
+  synchronized void recordCommandLatency(long milliseconds) {
+    if (commandLatencies.size() == LATENCY_SAMPLES) {
+      commandLatencies.removeFirst();
+    }
+    commandLatencies.addLast(milliseconds);
+  }
+
+  /**
+   * Records the JS heap size used by the page.
+   * @param bytes used JS heap size, null if the browser doesn't report it
+   */
+  synchronized void recordJsHeapSize(Long bytes) {
+    jsHeapSize = bytes;
+  }
+
+  public Duration getAge() {
+    return Duration.between(startTime, Instant.now());
+  }
+
+  /**
+   * Gets the median duration of the last commands.
+   * @return the median in milliseconds, or -1 if no command was recorded
+   */
+  public synchronized long getMedianCommandLatency() {
+    if (commandLatencies.isEmpty()) {
+      return -1;
+    }
+    long[] sorted = commandLatencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+
+  /**
+   * Gets the number of latency samples the median is calculated from.
+   * @return number of samples
+   */
+  public synchronized int getCommandLatencySamples() {
+    return commandLatencies.size();
+  }
+
+  /**
+   * Gets the JS heap size used by the last page, only reported by Chrome.
+   * @return used JS heap size in bytes, or null if unknown
+   */
+  public synchronized Long getJsHeapSize() {
+    return jsHeapSize;
+  }
+
+  @Override
+  public synchronized String toString() {
+    String heap = null == jsHeapSize ? "unknown" : jsHeapSize / (1024 * 1024) + "MB";
+    return "age=" + getAge().getSeconds() + "s"
+            + ", medianCommandLatency=" + getMedianCommandLatency() + "ms"
+            + ", jsHeapSize=" + heap;
+  }
+}
@@ -0,0 +1,75 @@
+package driver;
+
+import java.time.Duration;
+
+/**
+ * Limits after which a session is replaced by a new one instead of being reused, because long
+ * lived browsers get slower as their memory grows. A limit of 0 is disabled.
+ */
+public final class SessionHealthLimits {
+
+  private static final String DEFAULT_MAX_SESSION_AGE = "1800";
+  private static final String DEFAULT_MAX_COMMAND_LATENCY = "1000";
+  private static final String DEFAULT_MAX_JS_HEAP = "512";
+
+  /**
+   * Minimum number of latency samples to judge the session by its latency.
+   */
+  private static final int MIN_LATENCY_SAMPLES = 5;
+
+  private final Duration maxAge;
+  private final long maxMedianCommandLatency;
+  private final long maxJsHeapSize;
+
+  /**
+   * Constructor of the SessionHealthLimits class.
+   * @param maxAge maximum age of a session
+   * @param maxMedianCommandLatency maximum median command latency in milliseconds
+   * @param maxJsHeapSize maximum JS heap size in bytes
+   */
+  public SessionHealthLimits(Duration maxAge, long maxMedianCommandLatency, long maxJsHeapSize) {
+    this.maxAge = maxAge;
+    this.maxMedianCommandLatency = maxMedianCommandLatency;
+    this.maxJsHeapSize = maxJsHeapSize;
+  }
+
+  /**
+   * Reads the limits passed in the command line: -DmaxSessionAge in seconds,
+   * -DmaxCommandLatency in milliseconds and -DmaxJsHeap in megabytes.
+   * @return the SessionHealthLimits
+   */
+  public static SessionHealthLimits fromSystemProperties() {
+    return new SessionHealthLimits(
+            Duration.ofSeconds(Long.parseLong(
+                    System.getProperty("maxSessionAge", DEFAULT_MAX_SESSION_AGE))),
+            Long.parseLong(System.getProperty("maxCommandLatency", DEFAULT_MAX_COMMAND_LATENCY)),
+            Long.parseLong(System.getProperty("maxJsHeap", DEFAULT_MAX_JS_HEAP)) * 1024 * 1024);
+  }
+
+  /**
+   * Checks the health of a session against the limits.
+   * @param health the health of the session
+   * @return the limit exceeded by the session, or null if it can be reused
+   */
+  public String getExceededLimit(SessionHealth health) {
+    if (!maxAge.isZero() && health.getAge().compareTo(maxAge) > 0) {
+      return "older than " + maxAge.getSeconds() + "s";
+    }
+    if (maxMedianCommandLatency > 0
+            && health.getCommandLatencySamples() >= MIN_LATENCY_SAMPLES
+            && health.getMedianCommandLatency() > maxMedianCommandLatency) {
+      return "median command latency above " + maxMedianCommandLatency + "ms";
+    }
+    Long jsHeapSize = health.getJsHeapSize();
+    if (maxJsHeapSize > 0 && null != jsHeapSize && jsHeapSize > maxJsHeapSize) {
+      return "JS heap above " + maxJsHeapSize / (1024 * 1024) + "MB";
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "maxAge=" + maxAge.getSeconds() + "s, maxMedianCommandLatency="
+            + maxMedianCommandLatency + "ms, maxJsHeap=" + maxJsHeapSize / (1024 * 1024) + "MB";
+  }
+}
@@ -0,0 +1,74 @@
+package driver;
+
+import java.time.Instant;
+
+/**
+ * Immutable information about a browser session, captured once when the session is created so
+ * the reports can read it without sending commands to the browser.
+ */
+public final class SessionInfo {
+
+  private final String browserName;
+  private final String browserVersion;
+  private final String userAgent;
+  private final String sessionId;
+  private final String platform;
+  private final Instant startTime;
+  private final long creationMilliseconds;
+
+  /**
+   * Constructor of the SessionInfo class.
+   * @param browserName name of the browser
+   * @param browserVersion version of the browser
+   * @param userAgent user agent of the browser
+   * @param sessionId WebDriver session id
+   * @param platform platform the browser runs on
+   * @param startTime when the session was requested
+   * @param creationMilliseconds time it took to start the session
+   */
+  public SessionInfo(String browserName, String browserVersion, String userAgent,
+                     String sessionId, String platform, Instant startTime,
+                     long creationMilliseconds) {
+    this.browserName = browserName;
+    this.browserVersion = browserVersion;
+    this.userAgent = userAgent;
+    this.sessionId = sessionId;
+    this.platform = platform;
+    this.startTime = startTime;
+    this.creationMilliseconds = creationMilliseconds;
+  }
+
+  public String getBrowserName() {
+    return browserName;
+  }
+
+  public String getBrowserVersion() {
+    return browserVersion;
+  }
+
+  public String getUserAgent() {
+    return userAgent;
+  }
+
+  public String getSessionId() {
+    return sessionId;
+  }
+
+  public String getPlatform() {
+    return platform;
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public long getCreationMilliseconds() {
+    return creationMilliseconds;
+  }
+
+  @Override
+  public String toString() {
+    return browserName + " " + browserVersion + " on " + platform + ", session " + sessionId
+            + " started in " + creationMilliseconds + " ms";
+  }
+}
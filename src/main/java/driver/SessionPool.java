@@ -0,0 +1,392 @@
+package driver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Bounded pool of started browser sessions. Sessions are handed out to the tests, and taken back
+ * after each test with their state reset, so the next test doesn't pay the browser start up.
+ */
+public class SessionPool {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(SessionPool.class);
+
+  private static final String BLANK_PAGE = "about:blank";
+  /**
+   * Page loaded on the other origins to clear their cookies, small and without scripts.
+   */
+  private static final String CLEARING_PAGE = "/robots.txt";
+  private static final long WAIT_FOR_IDLE_SESSION_MILLISECONDS = 500;
+  private static final String CLEAR_STORAGE_SCRIPT =
+          "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}"
+          + " return window.performance && performance.memory"
+          + " ? performance.memory.usedJSHeapSize : null;";
+
+  /**
+   * Maximum number of tests a session can serve before being quit.
+   */
+  private final int maxReuse;
+
+  /**
+   * Limits of age, latency and memory after which a session is replaced.
+   */
+  private final SessionHealthLimits healthLimits;
+
+  /**
+   * One permit per session that can be alive at the same time.
+   */
+  private final Semaphore liveSessions;
+
+  /**
+   * Sessions waiting for a test. The last returned session is the first handed out.
+   */
+  private final BlockingDeque<DriverSession> idleSessions = new LinkedBlockingDeque<>();
+
+  /**
+   * Sessions started in background that no test used yet.
+   */
+  private final Set<DriverSession> spareSessions = ConcurrentHashMap.newKeySet();
+
+  private final AtomicInteger sessionsCreated = new AtomicInteger();
+  private final AtomicInteger sessionsPrewarmed = new AtomicInteger();
+  private final AtomicInteger prewarmedSessionsUsed = new AtomicInteger();
+  private final AtomicInteger sessionsReused = new AtomicInteger();
+  private final AtomicInteger sessionsRecycled = new AtomicInteger();
+  /**
+   * Calls of acquire() that started a session while the test waited.
+   */
+  private final AtomicInteger coldAcquires = new AtomicInteger();
+  /**
+   * Calls of acquire() that waited for another test to give its session back, and the time they
+   * waited.
+   */
+  private final AtomicInteger blockedAcquires = new AtomicInteger();
+  private final AtomicLong blockedMillis = new AtomicLong();
+
+  /**
+   * Constructor of the SessionPool class.
+   * @param maxSessions maximum number of sessions alive at the same time
+   * @param maxReuse maximum number of tests served by a session before it is quit
+   * @param healthLimits limits after which a session is quit before reaching maxReuse
+   */
+  public SessionPool(int maxSessions, int maxReuse, SessionHealthLimits healthLimits) {
+    if (maxSessions < 1 || maxReuse < 1) {
+      throw new IllegalArgumentException("The session pool size and reuse count must be positive");
+    }
+    this.maxReuse = maxReuse;
+    this.healthLimits = healthLimits;
+    this.liveSessions = new Semaphore(maxSessions, true);
+    logger.info("Session pool of {} sessions, each one reused up to {} times ({})", maxSessions,
+            maxReuse, healthLimits);
+  }
+
+  /**
+   * Gets a healthy idle session with the requested browser and profile, or starts a new one if
+   * the pool is not full. If it is full, idle sessions with another browser or profile are quit
+   * to make room, or else waits until another test gives its session back.
+   * @param browserType the browser
+   * @param profile the profile of the browser
+   * @param sessionCreator starts a new session when there is no idle session
+   * @return a session ready to be used by a test
+   */
+  public DriverSession acquire(BrowserType browserType, BrowserProfile profile,
+                               Supplier<DriverSession> sessionCreator) {
+    long blockedSince = 0;
+    try {
+      while (true) {
+        DriverSession session = pollIdleSession(browserType, profile);
+        if (null != session) {
+          if (isHealthy(session)) {
+            if (spareSessions.remove(session)) {
+              prewarmedSessionsUsed.incrementAndGet();
+              logger.debug("Using the spare session {}",
+                      session.getSessionInfo().getSessionId());
+              return session;
+            }
+            sessionsReused.incrementAndGet();
+            logger.debug("Reusing session {} after {} tests",
+                    session.getSessionInfo().getSessionId(), session.getTestsServed());
+            return session;
+          }
+          logger.info("Discarding unhealthy session");
+          discard(session);
+        } else if (liveSessions.tryAcquire()) {
+          coldAcquires.incrementAndGet();
+          return createSession(sessionCreator);
+        } else {
+          DriverSession otherSession = idleSessions.pollLast();
+          if (null != otherSession && matches(otherSession, browserType, profile)) {
+            // returned by another test in the meantime, take it in the next iteration
+            idleSessions.offerFirst(otherSession);
+          } else if (null != otherSession) {
+            logger.debug("Quitting an idle {} {} session to start a {} {} session",
+                    otherSession.getBrowserType(), otherSession.getProfile(), browserType,
+                    profile);
+            discard(otherSession);
+          } else {
+            if (0 == blockedSince) {
+              blockedAcquires.incrementAndGet();
+              blockedSince = System.currentTimeMillis();
+            }
+            waitForIdleSession();
+          }
+        }
+      }
+    } finally {
+      if (0 != blockedSince) {
+        blockedMillis.addAndGet(System.currentTimeMillis() - blockedSince);
+      }
+    }
+  }
+
+  /**
+   * Takes a session back after a test. The session is reset and kept for the next test, or quit
+   * if it already served the maximum number of tests, the reset failed or it exceeds the health
+   * limits.
+   * @param session the session used by the test
+   * @return true if the session was kept, false if it was quit
+   */
+  public boolean release(DriverSession session) {
+    session.incrementTestsServed();
+    if (session.getTestsServed() >= maxReuse) {
+      logger.debug("The session served {} tests, quitting it", session.getTestsServed());
+      discard(session);
+      return false;
+    } else if (!resetState(session)) {
+      logger.info("The session could not be reset, quitting it");
+      discard(session);
+      return false;
+    }
+    String exceededLimit = healthLimits.getExceededLimit(session.getHealth());
+    if (null != exceededLimit) {
+      sessionsRecycled.incrementAndGet();
+      logger.info("Replacing session {} after {} tests, {}: {}",
+              session.getSessionInfo().getSessionId(), session.getTestsServed(), exceededLimit,
+              session.getHealth());
+      discard(session);
+      return false;
+    }
+    session.markIdle();
+    idleSessions.offerFirst(session);
+    return true;
+  }
+
+  /**
+   * Tells if the session is serving its last test, the one that reaches the maximum number of
+   * tests. The pool quits it when it is given back.
+   * @param session a session handed out by the pool
+   * @return true if the session won't be reused
+   */
+  public boolean isLastUse(DriverSession session) {
+    return session.getTestsServed() + 1 >= maxReuse;
+  }
+
+  /**
+   * Starts a spare session in background and adds it to the idle sessions, if the pool is not
+   * full. The spare session takes a place in the pool like any other session, and is quit by the
+   * idle eviction if no test uses it.
+   * @param prewarmer the background threads
+   * @param sessionCreator starts the new session
+   * @return true if the spare session is starting, false if the pool is full or shutting down
+   */
+  public boolean prewarm(SessionPrewarmer prewarmer, Supplier<DriverSession> sessionCreator) {
+    if (!liveSessions.tryAcquire()) {
+      logger.debug("The session pool is full, no spare session started");
+      return false;
+    }
+    try {
+      prewarmer.start(() -> {
+        try {
+          DriverSession session = sessionCreator.get();
+          sessionsCreated.incrementAndGet();
+          sessionsPrewarmed.incrementAndGet();
+          spareSessions.add(session);
+          session.markIdle();
+          idleSessions.offerFirst(session);
+        } catch (RuntimeException e) {
+          liveSessions.release();
+          logger.error("The spare WebDriver could not be started", e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      liveSessions.release();
+      logger.debug("The spare WebDriver was not started, the suite is finishing", e);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Quits a session and frees its place in the pool.
+   * @param session the session to quit
+   */
+  void discard(DriverSession session) {
+    spareSessions.remove(session);
+    session.quit();
+    liveSessions.release();
+  }
+
+  /**
+   * Quits the sessions that have been idle for longer than the timeout.
+   * @param idleTimeout maximum time a session can stay idle
+   */
+  public void evictIdleSessions(Duration idleTimeout) {
+    Instant limit = Instant.now().minus(idleTimeout);
+    for (DriverSession session : idleSessions) {
+      // another thread may have taken the session in the meantime
+      if (session.getIdleSince().isBefore(limit) && idleSessions.removeFirstOccurrence(session)) {
+        logger.debug("Quitting session idle since {}", session.getIdleSince());
+        discard(session);
+      }
+    }
+  }
+
+  /**
+   * Quits all the idle sessions. Sessions in use must be quit by their owner.
+   */
+  public void shutdown() {
+    List<DriverSession> sessions = new ArrayList<>();
+    idleSessions.drainTo(sessions);
+    logger.info("Session pool stats: {} sessions created, {} sessions reused, {} sessions "
+            + "replaced by the health limits, {} spare sessions started in background, {} of "
+            + "them used by a test", sessionsCreated.get(), sessionsReused.get(),
+            sessionsRecycled.get(), sessionsPrewarmed.get(), prewarmedSessionsUsed.get());
+    logger.info("Session pool waits: {} tests waited for a session to start, {} tests waited "
+            + "{} ms in total for another test to give its session back", coldAcquires.get(),
+            blockedAcquires.get(), blockedMillis.get());
+    sessions.forEach(this::discard);
+  }
+
+  private DriverSession pollIdleSession(BrowserType browserType, BrowserProfile profile) {
+    Iterator<DriverSession> iterator = idleSessions.iterator();
+    while (iterator.hasNext()) {
+      DriverSession session = iterator.next();
+      // another thread may have taken the session in the meantime
+      if (matches(session, browserType, profile) && idleSessions.removeFirstOccurrence(session)) {
+        return session;
+      }
+    }
+    return null;
+  }
+
+  private static boolean matches(DriverSession session, BrowserType browserType,
+                                 BrowserProfile profile) {
+    return session.getBrowserType() == browserType && session.getProfile() == profile;
+  }
+
+  private DriverSession createSession(Supplier<DriverSession> sessionCreator) {
+    try {
+      DriverSession session = sessionCreator.get();
+      sessionsCreated.incrementAndGet();
+      return session;
+    } catch (RuntimeException e) {
+      liveSessions.release();
+      throw e;
+    }
+  }
+
+  private void waitForIdleSession() {
+    try {
+      DriverSession session =
+              idleSessions.pollFirst(WAIT_FOR_IDLE_SESSION_MILLISECONDS, TimeUnit.MILLISECONDS);
+      if (null != session) {
+        // put it back, the caller looks for the session with the right browser and profile
+        idleSessions.offerFirst(session);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a browser session", e);
+    }
+  }
+
+  private static boolean isHealthy(DriverSession session) {
+    try {
+      long start = System.currentTimeMillis();
+      session.getWebDriver().getWindowHandle();
+      session.getHealth().recordCommandLatency(System.currentTimeMillis() - start);
+      return true;
+    } catch (WebDriverException e) {
+      logger.debug("The session is not responding", e);
+      return false;
+    }
+  }
+
+  /**
+   * Leaves the browser as a new session: only its first window, no cookies, no storage, blank
+   * page. WebDriver only reaches the cookies and storage of the domain of the current page, so
+   * they are cleared on each origin the test navigated to through the page objects and on the
+   * origin of each window still open, navigating to a light page of the other origins. The
+   * session is discarded if its first window was closed. The latency and the JS heap size of the
+   * session are sampled at the same time.
+   */
+  private static boolean resetState(DriverSession session) {
+    WebDriver driver = session.getWebDriver();
+    try {
+      long start = System.currentTimeMillis();
+      Set<String> windowHandles = driver.getWindowHandles();
+      session.getHealth().recordCommandLatency(System.currentTimeMillis() - start);
+      String mainWindow = session.getMainWindowHandle();
+      if (!windowHandles.contains(mainWindow)) {
+        logger.debug("The first window of the session was closed");
+        return false;
+      }
+      for (String windowHandle : windowHandles) {
+        if (!windowHandle.equals(mainWindow)) {
+          driver.switchTo().window(windowHandle);
+          session.recordVisitedUrl(driver.getCurrentUrl());
+          driver.close();
+        }
+      }
+      driver.switchTo().window(mainWindow);
+      String currentOrigin = DriverSession.getOrigin(driver.getCurrentUrl());
+
+      // the page of the test first, its JS heap size is the one of the session
+      clearCookiesAndStorage(session, true);
+      for (String origin : session.takeVisitedOrigins()) {
+        if (!origin.equals(currentOrigin)) {
+          logger.trace("Clearing the cookies and storage of {}", origin);
+          driver.get(origin + CLEARING_PAGE);
+          clearCookiesAndStorage(session, false);
+        }
+      }
+      driver.get(BLANK_PAGE);
+      return true;
+    } catch (WebDriverException e) {
+      logger.debug("Exception resetting the session", e);
+      return false;
+    }
+  }
+
+  private static void clearCookiesAndStorage(DriverSession session, boolean sampleJsHeapSize) {
+    WebDriver driver = session.getWebDriver();
+    if (session.getBrowserType().isJavascriptEnabled()) {
+      Object jsHeapSize = ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+      if (sampleJsHeapSize) {
+        session.getHealth().recordJsHeapSize(
+                jsHeapSize instanceof Number ? ((Number) jsHeapSize).longValue() : null);
+      }
+    }
+    driver.manage().deleteAllCookies();
+  }
+}
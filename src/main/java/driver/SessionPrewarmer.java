@@ -0,0 +1,75 @@
+package driver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+/**
+ * Background threads that start the spare browser sessions of the SessionPool while the tests are
+ * running, so the next test gets an already started browser. The spare sessions take a place in
+ * the pool and wait for a test in its idle sessions, see SessionPool.prewarm().
+ */
+public class SessionPrewarmer {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(SessionPrewarmer.class);
+
+  private static final String THREAD_ID = "threadId";
+  private static final int TIMEOUT_TO_FINISH_SPARE_SESSIONS = 60;
+
+  private final ExecutorService executor;
+
+  /**
+   * Constructor of the SessionPrewarmer class.
+   * @param threads number of sessions that can be started in parallel
+   */
+  public SessionPrewarmer(int threads) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "session-prewarm-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    executor = Executors.newFixedThreadPool(threads, threadFactory);
+  }
+
+  /**
+   * Runs the start up of a spare session in the background.
+   * @param sessionStart starts the session and gives it to the pool
+   * @throws java.util.concurrent.RejectedExecutionException if the prewarmer was shut down
+   */
+  void start(Runnable sessionStart) {
+    // log the background start up in the log file of the thread that asked for it
+    String threadId = ThreadContext.get(THREAD_ID);
+    executor.execute(() -> {
+      ThreadContext.put(THREAD_ID, threadId);
+      logger.debug("Pre-warming a spare WebDriver");
+      sessionStart.run();
+    });
+  }
+
+  /**
+   * Stops the background threads, waiting for the sessions being started so they are in the pool
+   * when it is shut down.
+   */
+  public void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(TIMEOUT_TO_FINISH_SPARE_SESSIONS, TimeUnit.SECONDS)) {
+        logger.warn("Spare WebDrivers still starting after {} seconds",
+                TIMEOUT_TO_FINISH_SPARE_SESSIONS);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+}
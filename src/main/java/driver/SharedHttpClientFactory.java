@@ -0,0 +1,82 @@
+package driver;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.internal.OkHttpClient;
+
+/**
+ * HttpClient factory that shares one keep-alive connection pool between all the RemoteWebDriver
+ * sessions of the JVM. Each WebDriver command reuses an open connection to the grid instead of
+ * opening a new one.
+ */
+public final class SharedHttpClientFactory implements HttpClient.Factory {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(SharedHttpClientFactory.class);
+
+  private static final int MIN_IDLE_CONNECTIONS = 5;
+  private static final long KEEP_ALIVE_MINUTES = 5;
+
+  private static final SharedHttpClientFactory INSTANCE = new SharedHttpClientFactory();
+
+  /**
+   * Connection pool shared by all the clients created by this factory.
+   */
+  private final ConnectionPool connectionPool;
+
+  /**
+   * Client shared by all the sessions. Clients with other timeouts are derived from it and keep
+   * using the same connection pool.
+   */
+  private final okhttp3.OkHttpClient sharedClient;
+
+  /**
+   * Private constructor, there is one factory per JVM.
+   */
+  private SharedHttpClientFactory() {
+    int threads = Integer.parseInt(System.getProperty("threads", "1"));
+    connectionPool = new ConnectionPool(Math.max(threads, MIN_IDLE_CONNECTIONS),
+            KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+    sharedClient = new okhttp3.OkHttpClient.Builder()
+            .connectionPool(connectionPool)
+            .followRedirects(true)
+            .build();
+    logger.debug("Shared HTTP client created with a pool of {} idle connections",
+            Math.max(threads, MIN_IDLE_CONNECTIONS));
+  }
+
+  /**
+   * Gets the factory shared by all the sessions of the JVM.
+   * @return the SharedHttpClientFactory
+   */
+  public static SharedHttpClientFactory getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public HttpClient.Builder builder() {
+    return new HttpClient.Builder() {
+      @Override
+      public HttpClient createClient(URL url) {
+        okhttp3.OkHttpClient client = sharedClient.newBuilder()
+                .connectTimeout(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        return new OkHttpClient(client, url);
+      }
+    };
+  }
+
+  @Override
+  public void cleanupIdleClients() {
+    logger.debug("Closing {} idle connections", connectionPool.idleConnectionCount());
+    connectionPool.evictAll();
+  }
+}
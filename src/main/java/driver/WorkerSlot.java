@@ -0,0 +1,118 @@
+package driver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * State of a running test: its DriverFactory, the step counter of its report, the routing key of
+ * its log file and the attributes of its page objects. A thread borrows a slot from the
+ * DriverRegistry for the duration of a test and gives it back at the end of the test, so the
+ * state doesn't depend on which thread runs the test, nor on TestNG keeping the same threads.
+ * The number of slots is the number of tests running at the same time.
+ */
+public final class WorkerSlot {
+
+  /**
+   * The logger.
+   */
+  private static final Logger logger = LogManager.getLogger(WorkerSlot.class);
+
+  private final String name;
+  private final DriverFactory factory;
+  private final AtomicInteger stepNumber = new AtomicInteger(1);
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor of the WorkerSlot class.
+   * @param name the name of the slot, the routing key of its log file
+   * @param factory the DriverFactory of the tests running in the slot
+   */
+  WorkerSlot(String name, DriverFactory factory) {
+    this.name = name;
+    this.factory = factory;
+  }
+
+  /**
+   * Gets the name of the slot, the routing key of the log file of the tests running in it.
+   * @return the name, worker-1, worker-2...
+   */
+  public String getName() {
+    return name;
+  }
+
+  DriverFactory getFactory() {
+    return factory;
+  }
+
+  /**
+   * Resets the report step counter to 1.
+   */
+  public void resetStepCounter() {
+    stepNumber.set(1);
+  }
+
+  /**
+   * Gets the number of the next step to be logged in the report.
+   * @return the step number
+   */
+  public int getCurrentStepNumber() {
+    return stepNumber.get();
+  }
+
+  /**
+   * Gets the number of the step to be logged in the report, and moves to the next step.
+   * @return the step number
+   */
+  public int nextStepNumber() {
+    return stepNumber.getAndIncrement();
+  }
+
+  /**
+   * Gets an attribute set by the page objects in this slot.
+   * @param key the key of the attribute
+   * @return the value, or null if not set
+   */
+  public Object getAttribute(String key) {
+    return attributes.get(key);
+  }
+
+  /**
+   * Sets an attribute of the page objects, kept until removed or until the slot is released. An
+   * AutoCloseable value, as an account lease, is closed when the slot is released.
+   * @param key the key of the attribute
+   * @param value the value of the attribute
+   */
+  public void setAttribute(String key, Object value) {
+    attributes.put(key, value);
+  }
+
+  /**
+   * Removes an attribute and returns its value.
+   * @param key the key of the attribute
+   * @return the value, or null if not set
+   */
+  public Object removeAttribute(String key) {
+    return attributes.remove(key);
+  }
+
+  /**
+   * Clears the state of the test that ran in the slot, before the slot is given to another test.
+   * The AutoCloseable attributes are closed.
+   */
+  void clear() {
+    for (Object value : attributes.values()) {
+      if (value instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) value).close();
+        } catch (Exception e) {
+          logger.error("Unable to close the attribute {} of {}", value, name, e);
+        }
+      }
+    }
+    attributes.clear();
+    stepNumber.set(1);
+  }
+}
@@ -7,6 +7,9 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.io.Files.asByteSource;
@@ -20,6 +23,13 @@ public final class EnvironmentConfig {
 
 
   private static final String CONFIG = "config";
+  private static final String LEAN_PROFILE = "lean-profile";
+  private static final String BROWSER_GROUPS = "browser-groups";
+  private static final String WAITS = "waits";
+  private static final String PAGE_LOAD_STRATEGY = "page-load-strategy";
+  private static final String AUTH_STATE = "auth-state";
+  private static final long DEFAULT_AUTH_STATE_MAX_AGE_SECONDS = 1800;
+  private static final String ACCOUNT_PROVISIONING = "account-provisioning";
 
   private static Map<String, Object> configMap;
 
@@ -67,4 +77,126 @@ public final class EnvironmentConfig {
   public static String getTheForkUrl() {
     return configMap.get("the-fork").toString();
   }
+
+  /**
+   * Gets the test groups that use the lean browser profile.
+   * @return List of group names
+   */
+  public static List<String> getLeanProfileEnabledGroups() {
+    return getSectionList(LEAN_PROFILE, "enabled-groups");
+  }
+
+  /**
+   * Gets the test groups that never use the lean browser profile.
+   * @return List of group names
+   */
+  public static List<String> getLeanProfileDisabledGroups() {
+    return getSectionList(LEAN_PROFILE, "disabled-groups");
+  }
+
+  /**
+   * Gets the host patterns blocked by the lean browser profile, as *.example.com.
+   * @return List of host patterns
+   */
+  public static List<String> getLeanProfileBlockedHosts() {
+    return getSectionList(LEAN_PROFILE, "blocked-hosts");
+  }
+
+  /**
+   * Checks if the lean browser profile blocks the images.
+   * @return boolean
+   */
+  public static boolean isLeanProfileBlockingImages() {
+    return Boolean.parseBoolean(String.valueOf(getSection(LEAN_PROFILE).get("block-images")));
+  }
+
+  /**
+   * Gets the test groups that use another browser than the one passed in the command line, by
+   * browser name.
+   * @return Map of browser name to group names
+   */
+  @SuppressWarnings("unchecked")
+  public static Map<String, List<String>> getBrowserGroups() {
+    Object browserGroups = configMap.get(BROWSER_GROUPS);
+    return browserGroups == null ? Collections.emptyMap()
+            : (Map<String, List<String>>) browserGroups;
+  }
+
+  /**
+   * Gets a numeric setting of the waits section, as the polling intervals.
+   * @param key the name of the setting
+   * @param defaultValue the value when the setting is not in the config file
+   * @return the value of the setting
+   */
+  public static long getWaitsSetting(String key, long defaultValue) {
+    Object value = getSection(WAITS).get(key);
+    return value == null ? defaultValue : Long.parseLong(value.toString());
+  }
+
+  /**
+   * Gets the timeout of a wait condition from the timeouts of the waits section.
+   * @param conditionName the name of the wait condition
+   * @return the timeout in seconds, or null if the condition has no timeout configured
+   */
+  @SuppressWarnings("unchecked")
+  public static Long getWaitTimeout(String conditionName) {
+    Object timeouts = getSection(WAITS).get("timeouts");
+    Object timeout = timeouts == null ? null : ((Map<String, Object>) timeouts).get(conditionName);
+    return timeout == null ? null : Long.valueOf(timeout.toString());
+  }
+
+  /**
+   * Gets the page load strategy of a browser from the page-load-strategy section.
+   * @param browserName the name of the browser, as chrome
+   * @return normal, eager or none, or null if the browser has no strategy configured
+   */
+  public static String getPageLoadStrategy(String browserName) {
+    Object strategy = getSection(PAGE_LOAD_STRATEGY).get(browserName);
+    return strategy == null ? null : strategy.toString();
+  }
+
+  /**
+   * Gets the time an authentication state captured after a login is reused.
+   * @return the max-age-seconds of the auth-state section, 30 minutes by default
+   */
+  public static Duration getAuthStateMaxAge() {
+    Object maxAge = getSection(AUTH_STATE).get("max-age-seconds");
+    return Duration.ofSeconds(maxAge == null ? DEFAULT_AUTH_STATE_MAX_AGE_SECONDS
+            : Long.parseLong(maxAge.toString()));
+  }
+
+  /**
+   * Checks if a restored authentication state is verified in the sidebar before being used.
+   * @return the verify setting of the auth-state section, true by default
+   */
+  public static boolean isAuthStateVerified() {
+    Object verify = getSection(AUTH_STATE).get("verify");
+    return verify == null || Boolean.parseBoolean(verify.toString());
+  }
+
+  /**
+   * Gets a setting of the account-provisioning section, as the cache file.
+   * @param key the name of the setting
+   * @param defaultValue the value when the setting is not in the config file
+   * @return the value of the setting
+   */
+  public static String getAccountProvisioningSetting(String key, String defaultValue) {
+    Object value = getSection(ACCOUNT_PROVISIONING).get(key);
+    return value == null ? defaultValue : value.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getSection(String section) {
+    Object sectionMap = configMap.get(section);
+    return sectionMap == null ? Collections.emptyMap() : (Map<String, Object>) sectionMap;
+  }
+
+  /**
+   * Gets a list of a section, empty if the section or the list is not in the config file.
+   */
+  @SuppressWarnings("unchecked")
+  private static List<String> getSectionList(String section, String key) {
+    Object list = getSection(section).get(key);
+    return list == null ? Collections.emptyList() : (List<String>) list;
+  }
 }
@@ -1,6 +1,7 @@
 package pageobjects.base;
 
 import driver.DriverBase;
+import environment.EnvironmentConfig;
 import java.time.Clock;
 import org.openqa.selenium.WebDriver;
 
@@ -11,9 +12,69 @@ public abstract class AbstractPage extends AbstractPageObject {
 
   protected WebDriver driver;
   protected static final int TIMEOUT_TO_LOAD_PAGE = 20;
+  private static final long DEFAULT_PAGE_READY_POLLING_MILLIS = 200;
+
+  /**
+   * True once load() navigated to the page.
+   */
+  private boolean navigated;
 
   protected AbstractPage() {
       super(Clock.systemDefaultZone(), TIMEOUT_TO_LOAD_PAGE);
       driver = DriverBase.getDriver();
   }
-}
\ No newline at end of file
+
+  /**
+   * Loads the page and logs the time it took, to compare the load time between browser profiles.
+   * With the eager and none page load strategies, the navigation returns before the page is
+   * complete and the page is ready as soon as isLoaded() passes.
+   * @return the loaded page
+   */
+  @Override
+  public AbstractPageObject get() {
+      boolean measured = PageLoadTimes.isMeasured();
+      if (measured) {
+        PageLoadTimes.recordPending();
+      }
+      long start = System.currentTimeMillis();
+      AbstractPageObject page = super.get();
+      logger.info("{} loaded in {} ms with the {} browser profile", getClass().getSimpleName(),
+              System.currentTimeMillis() - start, DriverBase.getBrowserProfile());
+      if (measured && navigated) {
+        PageLoadTimes.recordReady(getClass().getSimpleName());
+      }
+      // counts the requests of the page from now on, for the network idle waits
+      NetworkActivity.install();
+      return page;
+  }
+
+  /**
+   * Navigates to the url of the page. To be used by load(), so that the time saved by the page
+   * load strategy is measured.
+   * @param url the url of the page
+   */
+  protected void navigateTo(String url) {
+      driver.get(url);
+      DriverBase.recordVisitedUrl(url);
+      navigated = true;
+  }
+
+  /**
+   * Tells if load() navigated to the page.
+   * @return true once navigateTo() was called
+   */
+  protected boolean hasNavigated() {
+      return navigated;
+  }
+
+  /**
+   * Polls isLoaded() more often than the default 200 ms, the pages are usually ready soon after
+   * the navigation returns with the eager and none page load strategies.
+   * @return the time between two isLoaded() checks, in milliseconds
+   */
+  @Override
+  protected long sleepFor() {
+      return EnvironmentConfig.getWaitsSetting("page-ready-polling-millis",
+              DEFAULT_PAGE_READY_POLLING_MILLIS);
+  }
+}
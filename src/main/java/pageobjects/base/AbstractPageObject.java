@@ -3,9 +3,14 @@ package pageobjects.base;
 import java.time.Clock;
 
 import customerros.PageObjectLoadingError;
+import driver.DriverBase;
+import java.util.List;
+import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.SlowLoadableComponent;
 
 
@@ -43,7 +48,110 @@ public abstract class AbstractPageObject extends SlowLoadableComponent<AbstractP
       throw new PageObjectLoadingError(customMessage);
   }
 
+  /**
+   * Checks the presence and visibility of several elements of the page in one round trip.
+   * @param locators the locators of the elements
+   * @return the ElementProbe with the element found by each locator
+   */
+  protected ElementProbe probe(By... locators) {
+    return probe(null, locators);
+  }
 
+  /**
+   * Checks the presence and visibility of several elements inside a root element in one round
+   * trip.
+   * @param root the element to search in, as the container of a component
+   * @param locators the locators of the elements
+   * @return the ElementProbe with the element found by each locator
+   */
+  protected ElementProbe probe(WebElement root, By... locators) {
+    return ElementProbe.run(DriverBase.getDriver(),
+            DriverBase.getBrowserType().isJavascriptEnabled(), root, locators);
+  }
+
+  /**
+   * Probes several elements of the page in one round trip, and throws the not loaded exception if
+   * some of them are not present.
+   * @param customMessage The custom message to write in the log.
+   * @param locators the locators of the elements that must be present
+   * @return the ElementProbe with the element found by each locator
+   */
+  protected ElementProbe verifyPresent(String customMessage, By... locators) {
+    return verifyPresent((WebElement) null, customMessage, locators);
+  }
+
+  /**
+   * Probes several elements inside a root element in one round trip, and throws the not loaded
+   * exception if some of them are not present.
+   * @param root the element to search in, as the container of a component
+   * @param customMessage The custom message to write in the log.
+   * @param locators the locators of the elements that must be present
+   * @return the ElementProbe with the element found by each locator
+   */
+  protected ElementProbe verifyPresent(WebElement root, String customMessage, By... locators) {
+    ElementProbe elements = probe(root, locators);
+    verifyPresent(elements, customMessage, locators);
+    return elements;
+  }
+
+  /**
+   * Throws the not loaded exception if some of the required elements were not found by the probe.
+   * @param probe the result of probe()
+   * @param customMessage The custom message to write in the log.
+   * @param required the locators of the elements that must be present
+   */
+  protected void verifyPresent(ElementProbe probe, String customMessage, By... required) {
+    List<By> missing = probe.getMissing(required);
+    if (!missing.isEmpty()) {
+      throwNotLoadedException(customMessage + "\nMissing elements: " + missing);
+    }
+  }
+
+  /**
+   * Fills several inputs inside a root element. With -DfastFormFill=true, all the values are set
+   * in one round trip, with the input and change events; otherwise they are typed key by key.
+   * @param root the element to search in, as the container of a component
+   * @param values the value of each input, filled in the iteration order of the map
+   */
+  protected void fillInputs(WebElement root, Map<By, String> values) {
+    FormFill.fill(root, values);
+  }
+
+  /**
+   * Types the values in several inputs inside a root element key by key, even with
+   * -DfastFormFill=true, for the inputs that react to each keystroke.
+   * @param root the element to search in, as the container of a component
+   * @param values the value of each input, typed in the iteration order of the map
+   */
+  protected void typeInputs(WebElement root, Map<By, String> values) {
+    FormFill.type(root, values);
+  }
+
+  /**
+   * Tells if the inputs are filled in one script, requested with -DfastFormFill=true.
+   * @return true if fillInputs() sets the values by script
+   */
+  protected boolean isFastFormFillEnabled() {
+    return FormFill.isEnabled();
+  }
+
+  /**
+   * Waits until the page has no request in flight for the quiet time of the config file, as
+   * after a search or a filter, until the API calls have returned. Does nothing unless
+   * -DnetworkIdleWaits=true.
+   */
+  protected void waitForNetworkIdle() {
+    waitForNetworkIdle(Waits.getNetworkQuietMillis());
+  }
+
+  /**
+   * Waits until the page has no request in flight during the quiet time. Does nothing unless
+   * -DnetworkIdleWaits=true.
+   * @param quietMillis time without network activity, in milliseconds
+   */
+  protected void waitForNetworkIdle(long quietMillis) {
+    Waits.untilNetworkIdle("network-idle", quietMillis);
+  }
 
   @Override
   protected void load() {
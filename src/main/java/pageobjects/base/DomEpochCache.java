@@ -0,0 +1,118 @@
+package pageobjects.base;
+
+import driver.DriverBase;
+import java.util.List;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Value read from a component with a script, kept as long as the DOM of the component doesn't
+ * change. A MutationObserver installed on the root element of the component counts the mutations
+ * of its subtree in an epoch: added and removed nodes, text changes, and the class, style and
+ * hidden attributes that change what is displayed. The other attributes (lazy image sources,
+ * data attributes) and the rest of the page don't change the epoch. Each read is one round trip,
+ * that checks the epoch and only sends the value back when the epoch changed since it was read.
+ * Needs JavaScript.
+ * @param <T> the type of the value
+ */
+public final class DomEpochCache<T> {
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(DomEpochCache.class);
+
+  /**
+   * Script function that installs the observer on a root element if needed and returns its
+   * current epoch. The epoch starts with a random id, so that a new element never reuses the
+   * epoch of the one it replaces. It can be called in other scripts to seed a cache.
+   */
+  public static final String EPOCH_FUNCTION =
+          "function (root) {"
+          + "   var state = root.__pageObjectsDomEpoch;"
+          + "   if (!state) {"
+          + "     state = root.__pageObjectsDomEpoch ="
+          + "         {id: Math.random().toString(36).slice(2), count: 0};"
+          + "     state.observer = new MutationObserver(function () { state.count++; });"
+          + "     state.observer.observe(root, {subtree: true, childList: true,"
+          + "         characterData: true, attributeFilter: ['class', 'style', 'hidden']});"
+          + "   }"
+          // the mutations not delivered to the observer yet also change the epoch
+          + "   if (state.observer.takeRecords().length > 0) { state.count++; }"
+          + "   return state.id + ':' + state.count;"
+          + " }";
+
+  private final String script;
+  private final Function<Object, T> parser;
+  private String epoch;
+  private T value;
+
+  /**
+   * Constructor of the DomEpochCache class.
+   * @param readerFunction JavaScript function that reads the value from the page, called with the
+   *                       root element and the arguments given to get()
+   * @param parser converts the object returned by the reader function into the value
+   */
+  public DomEpochCache(String readerFunction, Function<Object, T> parser) {
+    // a root removed from the page is no longer observed, its value can't be trusted
+    this.script = "var root = arguments[0];"
+            + " if (!document.documentElement.contains(root)) { return []; }"
+            + " var epoch = (" + EPOCH_FUNCTION + ")(root);"
+            + " if (epoch === arguments[1]) { return [epoch]; }"
+            + " var readerArguments = Array.prototype.slice.call(arguments, 2);"
+            + " readerArguments.unshift(root);"
+            + " return [epoch, (" + readerFunction + ").apply(null, readerArguments)];";
+    this.parser = parser;
+  }
+
+  /**
+   * Sets a value read by another script, as the value of the epoch returned by EPOCH_FUNCTION
+   * for the root in that script.
+   * @param epoch the epoch when the value was read
+   * @param value the value
+   */
+  public void seed(String epoch, T value) {
+    this.epoch = epoch;
+    this.value = value;
+  }
+
+  /**
+   * Forgets the value, the next get() reads it again. For the changes the observer doesn't see.
+   */
+  public void invalidate() {
+    epoch = null;
+    value = null;
+  }
+
+  /**
+   * Gets the value, in one round trip that only returns the epoch while the root is unchanged.
+   * @param root the root element of the component
+   * @param arguments the other arguments of the reader function
+   * @return the value read in the current epoch
+   * @throws StaleElementReferenceException if the root is no longer in the page
+   */
+  public T get(WebElement root, Object... arguments) {
+    Object[] scriptArguments = new Object[arguments.length + 2];
+    scriptArguments[0] = root;
+    // the epoch is never empty in the page, an empty one reads the value
+    scriptArguments[1] = null == epoch ? "" : epoch;
+    System.arraycopy(arguments, 0, scriptArguments, 2, arguments.length);
+    List<?> result = (List<?>) ((JavascriptExecutor) DriverBase.getDriver())
+            .executeScript(script, scriptArguments);
+    if (result.isEmpty()) {
+      invalidate();
+      throw new StaleElementReferenceException("The element is no longer attached to the DOM");
+    }
+    if (result.size() > 1) {
+      logger.debug("DOM changed since epoch {}, value read again in epoch {}", epoch,
+              result.get(0));
+      epoch = String.valueOf(result.get(0));
+      value = parser.apply(result.get(1));
+    }
+    return value;
+  }
+}
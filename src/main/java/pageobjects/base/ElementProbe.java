@@ -0,0 +1,198 @@
+package pageobjects.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Presence, visibility and first element of a set of locators, read from the browser in a single
+ * executeScript instead of one findElement per locator. The visibility is the one of the CSS
+ * (display, visibility and layout boxes), not the full WebDriver isDisplayed() algorithm.
+ */
+public final class ElementProbe {
+
+  /**
+   * Script function that finds the first element of a locator in a root, as converted by
+   * toScriptLocator(). Returns null if no element matches.
+   */
+  static final String FIND_FUNCTION =
+          "function (root, locator) {"
+          + "   var escape = window.CSS && CSS.escape ? CSS.escape"
+          + "       : function (value) { return value.replace(/([^\\w-])/g, '\\\\$1'); };"
+          + "   try {"
+          + "     var value = locator[1];"
+          + "     switch (locator[0]) {"
+          + "       case 'cssSelector': case 'tagName': return root.querySelector(value);"
+          + "       case 'id': return root.querySelector('#' + escape(value));"
+          + "       case 'className': return root.querySelector('.' + escape(value));"
+          + "       case 'name': return root.querySelector('[name=\"' + escape(value) + '\"]');"
+          + "       case 'xpath': return document.evaluate(value, root, null,"
+          + "           XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+          + "     }"
+          + "   } catch (e) { return null; }"
+          + "   return null;"
+          + " }";
+
+  /**
+   * Script function that tells if an element is visible for the CSS.
+   */
+  public static final String VISIBLE_FUNCTION =
+          "function (element) {"
+          + "   var style = window.getComputedStyle(element);"
+          + "   return style.display !== 'none' && style.visibility !== 'hidden'"
+          + "       && element.getClientRects().length > 0;"
+          + " }";
+
+  /**
+   * Script function that gets the text of an element as WebElement.getText() does: empty if the
+   * element is not visible for the CSS, only the visible text otherwise, with the runs of
+   * whitespace of each line collapsed to one space, the non-breaking spaces kept as spaces, and
+   * without the empty lines.
+   */
+  public static final String TEXT_FUNCTION =
+          "function (element) {"
+          + "   var visible = " + VISIBLE_FUNCTION + ";"
+          + "   if (!visible(element)) { return ''; }"
+          + "   return (element.innerText || element.textContent || '').split('\\n')"
+          + "       .map(function (line) {"
+          + "         return line.replace(/[^\\S\\u00a0]+/g, ' ').replace(/^ | $/g, '')"
+          + "             .replace(/\\u00a0/g, ' ');"
+          + "       })"
+          + "       .filter(function (line) { return line.length > 0; })"
+          + "       .join('\\n');"
+          + " }";
+
+  private static final String PROBE_SCRIPT =
+          "var root = arguments.length > 1 ? arguments[0] : document;"
+          + " var find = " + FIND_FUNCTION + ";"
+          + " var visible = " + VISIBLE_FUNCTION + ";"
+          + " return arguments[arguments.length - 1].map(function (locator) {"
+          + "   var element = find(root, locator);"
+          + "   if (!element) { return [false, false, null]; }"
+          + "   return [true, visible(element), element];"
+          + " });";
+
+  /**
+   * Locator types the probe script can resolve, as written by By.toString().
+   */
+  private static final List<String> SCRIPT_LOCATOR_TYPES =
+          Arrays.asList("cssSelector", "tagName", "id", "className", "name", "xpath");
+
+  private final Map<By, WebElement> elements = new HashMap<>();
+  private final Map<By, Boolean> visibility = new HashMap<>();
+  private final List<By> locators;
+
+  private ElementProbe(List<By> locators) {
+    this.locators = locators;
+  }
+
+  /**
+   * Probes the locators in the whole page or inside a root element.
+   * @param driver the WebDriver
+   * @param javascriptEnabled false for the browsers without JavaScript, probed one by one
+   * @param root the element to search in, or null to search in the whole page
+   * @param locators the locators to probe
+   * @return the ElementProbe with the result of each locator
+   */
+  static ElementProbe run(WebDriver driver, boolean javascriptEnabled, WebElement root,
+                          By... locators) {
+    ElementProbe probe = new ElementProbe(Arrays.asList(locators));
+    List<List<String>> scriptLocators = new ArrayList<>();
+    for (By locator : locators) {
+      scriptLocators.add(toScriptLocator(locator));
+    }
+    boolean scriptable = javascriptEnabled && !scriptLocators.contains(null);
+
+    if (scriptable) {
+      // the root is only passed when there is one, some drivers reject null arguments
+      Object[] arguments = null == root ? new Object[] {scriptLocators}
+              : new Object[] {root, scriptLocators};
+      List<?> results = (List<?>) ((JavascriptExecutor) driver)
+              .executeScript(PROBE_SCRIPT, arguments);
+      for (int i = 0; i < locators.length; i++) {
+        List<?> result = (List<?>) results.get(i);
+        if (Boolean.TRUE.equals(result.get(0))) {
+          probe.elements.put(locators[i], (WebElement) result.get(2));
+          probe.visibility.put(locators[i], Boolean.TRUE.equals(result.get(1)));
+        }
+      }
+    } else {
+      SearchContext context = null == root ? driver : root;
+      for (By locator : locators) {
+        List<WebElement> found = context.findElements(locator);
+        if (!found.isEmpty()) {
+          probe.elements.put(locator, found.get(0));
+          probe.visibility.put(locator, found.get(0).isDisplayed());
+        }
+      }
+    }
+    return probe;
+  }
+
+  /**
+   * Converts a locator to the type and value FIND_FUNCTION understands.
+   * @param locator the locator
+   * @return the type and value of the locator, or null if the script can't find its elements
+   */
+  static List<String> toScriptLocator(By locator) {
+    List<String> typeAndValue = Arrays.asList(
+            locator.toString().replaceFirst("^By\\.", "").split(": ", 2));
+    if (typeAndValue.size() != 2 || !SCRIPT_LOCATOR_TYPES.contains(typeAndValue.get(0))) {
+      return null;
+    }
+    return typeAndValue;
+  }
+
+  /**
+   * Checks if the locator matched an element.
+   * @param locator one of the probed locators
+   * @return true if the element is in the page
+   */
+  public boolean isPresent(By locator) {
+    return elements.containsKey(locator);
+  }
+
+  /**
+   * Checks if the locator matched a visible element.
+   * @param locator one of the probed locators
+   * @return true if the element is in the page and visible
+   */
+  public boolean isVisible(By locator) {
+    return visibility.getOrDefault(locator, false);
+  }
+
+  /**
+   * Gets the first element matched by the locator.
+   * @param locator one of the probed locators
+   * @return the WebElement, or null if the element is not in the page
+   */
+  public WebElement getElement(By locator) {
+    return elements.get(locator);
+  }
+
+  /**
+   * Gets the probed locators that didn't match any element.
+   * @return the missing locators, empty if all the elements are in the page
+   */
+  public List<By> getMissing() {
+    return getMissing(locators.toArray(new By[0]));
+  }
+
+  /**
+   * Gets the locators among the required ones that didn't match any element.
+   * @param required some of the probed locators
+   * @return the missing locators, empty if all the required elements are in the page
+   */
+  public List<By> getMissing(By... required) {
+    return Arrays.stream(required).filter(locator -> !isPresent(locator))
+            .collect(Collectors.toList());
+  }
+}
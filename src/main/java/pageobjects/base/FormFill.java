@@ -0,0 +1,121 @@
+package pageobjects.base;
+
+import driver.DriverBase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Fills text inputs, typing the values key by key, or setting all the values in one script with
+ * the native value setter and the input and change events React listens to. The script is opt-in
+ * with -DfastFormFill=true, and only with JavaScript.
+ */
+final class FormFill {
+
+  /**
+   * Sets the value of each input found, as [locator, value], and returns the indexes of the
+   * inputs not found. The value is set with the setter of the element prototype, React ignores
+   * the values set through its own value property.
+   */
+  private static final String FILL_SCRIPT =
+          "var root = arguments.length > 1 ? arguments[0] : document;"
+          + " var find = " + ElementProbe.FIND_FUNCTION + ";"
+          + " var missing = [];"
+          + " arguments[arguments.length - 1].forEach(function (field, index) {"
+          + "   var input = find(root, field[0]);"
+          + "   if (!input) { missing.push(index); return; }"
+          + "   var prototype = input instanceof HTMLTextAreaElement"
+          + "       ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;"
+          + "   var descriptor = Object.getOwnPropertyDescriptor(prototype, 'value');"
+          + "   input.focus();"
+          + "   if (descriptor && descriptor.set) {"
+          + "     descriptor.set.call(input, field[1]);"
+          + "   } else {"
+          + "     input.value = field[1];"
+          + "   }"
+          + "   input.dispatchEvent(new Event('input', {bubbles: true}));"
+          + "   input.dispatchEvent(new Event('change', {bubbles: true}));"
+          + " });"
+          + " return missing;";
+
+  private static final String VALUE_ATTRIBUTE = "value";
+
+  /**
+   * Private constructor.
+   */
+  private FormFill() {
+  }
+
+  /**
+   * Tells if the fast form fill was requested with -DfastFormFill=true and the browser runs
+   * JavaScript.
+   * @return true if the inputs are filled by script
+   */
+  static boolean isEnabled() {
+    return Boolean.getBoolean("fastFormFill")
+            && DriverBase.getBrowserType().isJavascriptEnabled();
+  }
+
+  /**
+   * Fills the inputs, in one script if the fast form fill is enabled and the script can find all
+   * the inputs, key by key otherwise.
+   * @param root the element to search in, or null to search in the whole page
+   * @param values the value of each input
+   */
+  static void fill(WebElement root, Map<By, String> values) {
+    List<List<Object>> fields = new ArrayList<>();
+    for (Map.Entry<By, String> entry : values.entrySet()) {
+      List<String> scriptLocator = ElementProbe.toScriptLocator(entry.getKey());
+      if (null == scriptLocator) {
+        fields = null;
+        break;
+      }
+      fields.add(Arrays.asList(scriptLocator, entry.getValue()));
+    }
+
+    if (null != fields && isEnabled()) {
+      fillByScript(root, values, fields);
+    } else {
+      type(root, values);
+    }
+  }
+
+  /**
+   * Types the values in the inputs, clearing the inputs that have a value first.
+   * @param root the element to search in, or null to search in the whole page
+   * @param values the value of each input
+   */
+  static void type(WebElement root, Map<By, String> values) {
+    SearchContext context = null == root ? DriverBase.getDriver() : root;
+    for (Map.Entry<By, String> entry : values.entrySet()) {
+      WebElement input = context.findElement(entry.getKey());
+      String content = input.getAttribute(VALUE_ATTRIBUTE);
+      if (null != content && !content.isEmpty()) {
+        input.clear();
+      }
+      input.sendKeys(entry.getValue());
+    }
+  }
+
+  private static void fillByScript(WebElement root, Map<By, String> values,
+                                   List<List<Object>> fields) {
+    // the root is only passed when there is one, some drivers reject null arguments
+    Object[] arguments = null == root ? new Object[] {fields} : new Object[] {root, fields};
+    List<?> missing = (List<?>) ((JavascriptExecutor) DriverBase.getDriver())
+            .executeScript(FILL_SCRIPT, arguments);
+    if (!missing.isEmpty()) {
+      List<By> locators = new ArrayList<>(values.keySet());
+      List<By> notFound = new ArrayList<>();
+      for (Object index : missing) {
+        notFound.add(locators.get(((Number) index).intValue()));
+      }
+      throw new NoSuchElementException("Unable to locate the inputs " + notFound);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package pageobjects.base;
+
+import driver.DriverBase;
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * Instrumentation of the fetch and XMLHttpRequest calls of the page, to know when the page has no
+ * request in flight. Opt-in with -DnetworkIdleWaits=true, and only with JavaScript.
+ */
+final class NetworkActivity {
+
+  /**
+   * Wraps fetch and XMLHttpRequest.send to count the requests in flight and the time of the last
+   * request started or finished. Does nothing if the page is already instrumented. The requests
+   * started before the instrumentation are not seen.
+   */
+  static final String INSTALL_SCRIPT =
+          "(function () {"
+          + "   if (window.__pageObjectsNetwork) { return; }"
+          + "   var state = window.__pageObjectsNetwork = {inFlight: 0, lastChange: Date.now()};"
+          + "   function start() { state.inFlight++; state.lastChange = Date.now(); }"
+          + "   function end() {"
+          + "     state.inFlight = Math.max(0, state.inFlight - 1);"
+          + "     state.lastChange = Date.now();"
+          + "   }"
+          + "   if (window.fetch) {"
+          + "     var fetch = window.fetch;"
+          + "     window.fetch = function () {"
+          + "       start();"
+          + "       return fetch.apply(this, arguments).then("
+          + "           function (response) { end(); return response; },"
+          + "           function (error) { end(); throw error; });"
+          + "     };"
+          + "   }"
+          + "   var send = XMLHttpRequest.prototype.send;"
+          + "   XMLHttpRequest.prototype.send = function () {"
+          + "     var ended = false;"
+          + "     function endOnce() { if (!ended) { ended = true; end(); } }"
+          + "     this.addEventListener('loadend', endOnce);"
+          + "     start();"
+          + "     try { return send.apply(this, arguments); } catch (e) { endOnce(); throw e; }"
+          + "   };"
+          + " })();";
+
+  /**
+   * Calls back with [true, 0] once the document is parsed and no request started or finished
+   * during the quiet time, counted from the call of the script at the earliest, or with
+   * [false, requests in flight] at the timeout. The quiet time never starts before the call, so
+   * the request of a click made just before the wait, that may start a little later, is waited
+   * for. A page not instrumented yet, after a navigation, is instrumented first: the requests
+   * already in flight then are not counted.
+   */
+  static final String IDLE_SCRIPT =
+          INSTALL_SCRIPT
+          + " var quiet = arguments[0], begin = Date.now(), deadline = begin + arguments[1],"
+          + "     callback = arguments[arguments.length - 1];"
+          + " var state = window.__pageObjectsNetwork;"
+          + " (function check() {"
+          + "   var now = Date.now();"
+          + "   if (state.inFlight === 0 && document.readyState !== 'loading'"
+          + "       && now - Math.max(begin, state.lastChange) >= quiet) {"
+          + "     callback([true, 0]);"
+          + "   } else if (now >= deadline) {"
+          + "     callback([false, state.inFlight]);"
+          + "   } else {"
+          + "     setTimeout(check, Math.min(50, quiet));"
+          + "   }"
+          + " })();";
+
+  /**
+   * Private constructor.
+   */
+  private NetworkActivity() {
+  }
+
+  /**
+   * Tells if the network idle waits were requested with -DnetworkIdleWaits=true and the browser
+   * runs JavaScript.
+   * @return true if the pages are instrumented
+   */
+  static boolean isEnabled() {
+    return Boolean.getBoolean("networkIdleWaits")
+            && DriverBase.getBrowserType().isJavascriptEnabled();
+  }
+
+  /**
+   * Instruments the current page, if the network idle waits are enabled.
+   */
+  static void install() {
+    if (isEnabled()) {
+      ((JavascriptExecutor) DriverBase.getDriver()).executeScript(INSTALL_SCRIPT);
+    }
+  }
+}
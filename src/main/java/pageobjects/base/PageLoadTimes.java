@@ -0,0 +1,151 @@
+package pageobjects.base;
+
+import driver.DriverBase;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+
+/**
+ * Time saved by the eager and none page load strategies: time between the moment a page is ready
+ * for the test, its components loaded, and the load event of the page, that the normal strategy
+ * waits for. The load event usually fires after the page is ready, so the time is read when the
+ * next page is loaded.
+ */
+public final class PageLoadTimes {
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(PageLoadTimes.class);
+
+  private static final String TIMING_SCRIPT =
+          "var timing = window.performance.timing;"
+          + " return [timing.navigationStart, timing.loadEventEnd, Date.now()];";
+
+  /**
+   * Attribute of the WorkerSlot keeping the page of the test ready before its load event, waiting
+   * for the load event time.
+   */
+  private static final String PENDING_PAGE = "pageLoadTimes.pendingPage";
+
+  /**
+   * Time saved on each page.
+   */
+  private static final Map<String, SavedTimeStats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor.
+   */
+  private PageLoadTimes() {
+  }
+
+  /**
+   * Tells if the pages are ready before their load event, with the eager or none page load
+   * strategy of a browser with JavaScript.
+   * @return true if the time saved is measured
+   */
+  static boolean isMeasured() {
+    return DriverBase.getBrowserType().isJavascriptEnabled()
+            && DriverBase.getBrowserType().getPageLoadStrategy() != PageLoadStrategy.NORMAL;
+  }
+
+  /**
+   * Records the time saved on the previous page of the test, if its load event has fired
+   * since it was ready. Called before loading a new page.
+   */
+  static void recordPending() {
+    ReadyPage page = (ReadyPage) DriverBase.getWorkerSlot().removeAttribute(PENDING_PAGE);
+    if (null == page) {
+      return;
+    }
+    List<?> timing = readTiming();
+    long navigationStart = ((Number) timing.get(0)).longValue();
+    long loadEventEnd = ((Number) timing.get(1)).longValue();
+    if (navigationStart != page.navigationStart) {
+      logger.debug("{} was left before its load event", page.name);
+    } else if (loadEventEnd > 0) {
+      record(page.name, loadEventEnd - page.readyAt);
+    } else {
+      // still loading, saved at least until now
+      record(page.name, ((Number) timing.get(2)).longValue() - page.readyAt);
+    }
+  }
+
+  /**
+   * Records that a page just navigated to is ready for the test.
+   * @param name the name of the page
+   */
+  static void recordReady(String name) {
+    List<?> timing = readTiming();
+    long navigationStart = ((Number) timing.get(0)).longValue();
+    long loadEventEnd = ((Number) timing.get(1)).longValue();
+    if (loadEventEnd > 0) {
+      // the page was complete when its components were ready, nothing saved
+      record(name, 0);
+    } else {
+      DriverBase.getWorkerSlot().setAttribute(PENDING_PAGE, new ReadyPage(name, navigationStart,
+              ((Number) timing.get(2)).longValue()));
+    }
+  }
+
+  /**
+   * Logs the time saved on each page, since the beginning of the suite.
+   */
+  public static void logStats() {
+    stats.forEach((name, pageStats) -> logger.info("Page load strategy saved on {}: {}", name,
+            pageStats));
+  }
+
+  private static List<?> readTiming() {
+    return (List<?>) ((JavascriptExecutor) DriverBase.getDriver()).executeScript(TIMING_SCRIPT);
+  }
+
+  private static void record(String name, long savedMillis) {
+    logger.info("{} was ready {} ms before its load event, with the {} page load strategy", name,
+            savedMillis, DriverBase.getBrowserType().getPageLoadStrategy());
+    stats.computeIfAbsent(name, pageName -> new SavedTimeStats()).record(savedMillis);
+  }
+
+  /**
+   * Page ready before its load event.
+   */
+  private static final class ReadyPage {
+
+    private final String name;
+    private final long navigationStart;
+    private final long readyAt;
+
+    ReadyPage(String name, long navigationStart, long readyAt) {
+      this.name = name;
+      this.navigationStart = navigationStart;
+      this.readyAt = readyAt;
+    }
+  }
+
+  /**
+   * Number of navigations and time saved on a page.
+   */
+  private static final class SavedTimeStats {
+
+    private int count;
+    private long totalMillis;
+    private long maxMillis;
+
+    synchronized void record(long milliseconds) {
+      count++;
+      totalMillis += milliseconds;
+      maxMillis = Math.max(maxMillis, milliseconds);
+    }
+
+    @Override
+    public synchronized String toString() {
+      return count + " navigations, " + totalMillis + " ms in total, "
+              + (0 == count ? 0 : totalMillis / count) + " ms on average, " + maxMillis
+              + " ms max";
+    }
+  }
+}
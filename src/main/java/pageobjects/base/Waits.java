@@ -0,0 +1,321 @@
+package pageobjects.base;
+
+import driver.DriverBase;
+import environment.EnvironmentConfig;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * Waits of the page objects. The condition is polled with a backoff: the interval starts short and
+ * doubles until linear-polling-from-millis, then grows linearly up to max-polling-millis, so the
+ * fast conditions return after a few milliseconds. The timeout of each condition comes from the
+ * waits section of the config file, and the time spent in each condition is recorded.
+ * The waits for an element to appear or disappear don't poll with JavaScript: a MutationObserver
+ * installed in the page answers as soon as the element changes, in one blocking round trip.
+ */
+public final class Waits {
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(Waits.class);
+
+  private static final long DEFAULT_INITIAL_POLLING_MILLIS = 20;
+  private static final long DEFAULT_LINEAR_POLLING_FROM_MILLIS = 160;
+  private static final long DEFAULT_MAX_POLLING_MILLIS = 500;
+  private static final long DEFAULT_TIMEOUT_SECONDS = 10;
+  private static final long DEFAULT_OBSERVER_RECHECK_MILLIS = 100;
+  private static final long DEFAULT_NETWORK_QUIET_MILLIS = 200;
+
+  /**
+   * Waits in the page until an element is present, visible or hidden, and calls back with the
+   * element, or true once hidden. Calls back with null at the timeout. The condition is checked
+   * at each DOM mutation, and regularly for the CSS transitions that end without mutation.
+   */
+  private static final String OBSERVER_SCRIPT =
+          "var target = arguments[0], state = arguments[1], timeout = arguments[2],"
+          + "     recheck = arguments[3], callback = arguments[arguments.length - 1];"
+          + " var find = " + ElementProbe.FIND_FUNCTION + ";"
+          + " var visible = " + ElementProbe.VISIBLE_FUNCTION + ";"
+          + " function check() {"
+          + "   var element = Array.isArray(target) ? find(document, target) : target;"
+          + "   if (state === 'hidden') {"
+          + "     var hidden = !element || !document.contains(element) || !visible(element);"
+          + "     return hidden ? true : null;"
+          + "   }"
+          + "   return element && (state === 'present' || visible(element)) ? element : null;"
+          + " }"
+          + " var result = check();"
+          + " if (result) { callback(result); return; }"
+          + " var done = false, observer, interval, timer;"
+          + " function finish(value) {"
+          + "   if (done) { return; }"
+          + "   done = true;"
+          + "   observer.disconnect(); clearInterval(interval); clearTimeout(timer);"
+          + "   callback(value);"
+          + " }"
+          + " function recheckCondition() { var value = check(); if (value) { finish(value); } }"
+          + " observer = new MutationObserver(recheckCondition);"
+          + " observer.observe(document,"
+          + "     {subtree: true, childList: true, attributes: true, characterData: true});"
+          + " interval = setInterval(recheckCondition, recheck);"
+          + " timer = setTimeout(function () { finish(null); }, timeout);";
+
+  /**
+   * Time spent waiting for each condition.
+   */
+  private static final Map<String, WaitStats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor.
+   */
+  private Waits() {
+  }
+
+  /**
+   * Waits until the condition returns a value that is not null nor false.
+   * The timeout is the one configured for the name of the condition. Names are dotted, as
+   * autocomplete.option: without a timeout for autocomplete.option the timeout of autocomplete is
+   * used, and the default timeout without any of them.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param condition the condition to wait for
+   * @param <V> the type of the value returned by the condition
+   * @return the value returned by the condition
+   * @throws TimeoutException if the condition is not met before the timeout
+   */
+  public static <V> V until(String conditionName, Function<? super WebDriver, V> condition) {
+    long timeout = getTimeoutSeconds(conditionName);
+    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), Clock.systemDefaultZone(),
+            new BackoffSleeper(), timeout, getPollingSetting("initial-polling-millis",
+            DEFAULT_INITIAL_POLLING_MILLIS));
+    return record(conditionName, () -> wait.until(condition));
+  }
+
+  /**
+   * Waits until an element is in the page, as presenceOfElementLocated.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param locator the locator of the element
+   * @return the element
+   * @throws TimeoutException if the element is not in the page before the timeout
+   */
+  public static WebElement untilPresent(String conditionName, By locator) {
+    return untilObserved(conditionName, locator, "present",
+            ExpectedConditions.presenceOfElementLocated(locator));
+  }
+
+  /**
+   * Waits until an element is visible, as visibilityOfElementLocated.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param locator the locator of the element
+   * @return the element
+   * @throws TimeoutException if the element is not visible before the timeout
+   */
+  public static WebElement untilVisible(String conditionName, By locator) {
+    return untilObserved(conditionName, locator, "visible",
+            ExpectedConditions.visibilityOfElementLocated(locator));
+  }
+
+  /**
+   * Waits until an element is hidden or not in the page, as invisibilityOfElementLocated.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param locator the locator of the element
+   * @throws TimeoutException if the element is still visible at the timeout
+   */
+  public static void untilInvisible(String conditionName, By locator) {
+    untilObserved(conditionName, locator, "hidden",
+            ExpectedConditions.invisibilityOfElementLocated(locator));
+  }
+
+  /**
+   * Waits until an element is hidden or removed from the page, as invisibilityOf.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param element the element
+   * @throws TimeoutException if the element is still visible at the timeout
+   */
+  public static void untilInvisible(String conditionName, WebElement element) {
+    untilObserved(conditionName, element, "hidden", ExpectedConditions.invisibilityOf(element));
+  }
+
+  /**
+   * Waits until the page has no fetch or XMLHttpRequest in flight and no request started or
+   * finished during the quiet time, that starts with the wait at the earliest, so a request
+   * started a little after a click is waited for. Does nothing unless -DnetworkIdleWaits=true.
+   * @param conditionName name of the condition, for the timeout and the stats
+   * @param quietMillis time without network activity, in milliseconds
+   * @throws TimeoutException if the network is still busy at the timeout
+   */
+  public static void untilNetworkIdle(String conditionName, long quietMillis) {
+    if (!NetworkActivity.isEnabled()) {
+      return;
+    }
+    long timeout = getTimeoutSeconds(conditionName);
+    record(conditionName, () -> {
+      List<?> result = (List<?>) ((JavascriptExecutor) DriverBase.getDriver())
+              .executeAsyncScript(NetworkActivity.IDLE_SCRIPT, quietMillis, timeout * 1000);
+      if (!Boolean.TRUE.equals(result.get(0))) {
+        throw new TimeoutException("Expected the network to be idle for " + quietMillis
+                + " ms (tried for " + timeout + " second(s), " + result.get(1)
+                + " request(s) in flight)");
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Gets the quiet time of the network idle waits of the waits section of the config file.
+   * @return time without network activity, in milliseconds
+   */
+  public static long getNetworkQuietMillis() {
+    return getPollingSetting("network-quiet-millis", DEFAULT_NETWORK_QUIET_MILLIS);
+  }
+
+  /**
+   * Waits for an element with the observer script, or polls the fallback condition when the
+   * browser has no JavaScript or the script can't find the element.
+   */
+  private static <V> V untilObserved(String conditionName, Object target, String state,
+                                     Function<? super WebDriver, V> fallback) {
+    Object scriptTarget = target instanceof By
+            ? ElementProbe.toScriptLocator((By) target) : target;
+    if (!DriverBase.getBrowserType().isJavascriptEnabled() || null == scriptTarget) {
+      return until(conditionName, fallback);
+    }
+    long timeout = getTimeoutSeconds(conditionName);
+    return record(conditionName, () -> {
+      Object result;
+      try {
+        result = ((JavascriptExecutor) DriverBase.getDriver()).executeAsyncScript(
+                OBSERVER_SCRIPT, scriptTarget, state, timeout * 1000,
+                getPollingSetting("observer-recheck-millis", DEFAULT_OBSERVER_RECHECK_MILLIS));
+      } catch (StaleElementReferenceException e) {
+        // the element was removed from the page before the wait
+        result = Boolean.TRUE;
+      } catch (ScriptTimeoutException e) {
+        // the script timeout of the session is shorter than the timeout of the condition
+        throw new TimeoutException("Script timeout while waiting for " + conditionName, e);
+      }
+      if (null == result) {
+        throw new TimeoutException("Expected " + target + " to be " + state
+                + " (tried for " + timeout + " second(s) with a MutationObserver)");
+      }
+      @SuppressWarnings("unchecked")
+      V value = (V) result;
+      return value;
+    });
+  }
+
+  /**
+   * Runs a wait and records the time it took.
+   */
+  private static <V> V record(String conditionName, Supplier<V> wait) {
+    long start = System.currentTimeMillis();
+    boolean failed = true;
+    try {
+      V value = wait.get();
+      failed = false;
+      return value;
+    } finally {
+      long elapsed = System.currentTimeMillis() - start;
+      stats.computeIfAbsent(conditionName, name -> new WaitStats()).record(elapsed, failed);
+      logger.debug("Waited {} ms for {}{}", elapsed, conditionName, failed ? " (failed)" : "");
+    }
+  }
+
+  /**
+   * Logs the time spent in each condition, the conditions with the most time first.
+   */
+  public static void logStats() {
+    stats.entrySet().stream()
+            .sorted(Comparator.comparingLong(
+                    (Map.Entry<String, WaitStats> entry) -> entry.getValue().getTotalMillis())
+                    .reversed())
+            .forEach(entry -> logger.info("Wait {}: {}", entry.getKey(), entry.getValue()));
+  }
+
+  private static long getTimeoutSeconds(String conditionName) {
+    String name = conditionName;
+    while (true) {
+      Long timeout = EnvironmentConfig.getWaitTimeout(name);
+      if (null != timeout) {
+        return timeout;
+      }
+      int lastDot = name.lastIndexOf('.');
+      if (lastDot < 0) {
+        return EnvironmentConfig.getWaitsSetting("default-timeout-seconds",
+                DEFAULT_TIMEOUT_SECONDS);
+      }
+      name = name.substring(0, lastDot);
+    }
+  }
+
+  private static long getPollingSetting(String key, long defaultValue) {
+    return EnvironmentConfig.getWaitsSetting(key, defaultValue);
+  }
+
+  /**
+   * Sleeps an exponential then linear backoff between two polls of the same wait, instead of the
+   * fixed interval of the WebDriverWait.
+   */
+  private static final class BackoffSleeper implements Sleeper {
+
+    private final long linearFrom = getPollingSetting("linear-polling-from-millis",
+            DEFAULT_LINEAR_POLLING_FROM_MILLIS);
+    private final long max = getPollingSetting("max-polling-millis", DEFAULT_MAX_POLLING_MILLIS);
+    private long interval = getPollingSetting("initial-polling-millis",
+            DEFAULT_INITIAL_POLLING_MILLIS);
+
+    @Override
+    public void sleep(Duration ignored) throws InterruptedException {
+      Thread.sleep(interval);
+      interval = Math.min(max, interval < linearFrom ? interval * 2 : interval + linearFrom);
+    }
+  }
+
+  /**
+   * Number of waits and time spent in a condition.
+   */
+  private static final class WaitStats {
+
+    private int count;
+    private int failures;
+    private long totalMillis;
+    private long maxMillis;
+
+    synchronized void record(long milliseconds, boolean failed) {
+      count++;
+      totalMillis += milliseconds;
+      maxMillis = Math.max(maxMillis, milliseconds);
+      if (failed) {
+        failures++;
+      }
+    }
+
+    synchronized long getTotalMillis() {
+      return totalMillis;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return count + " waits, " + totalMillis + " ms in total, " + maxMillis + " ms max, "
+              + failures + " failed";
+    }
+  }
+}
@@ -30,27 +30,10 @@ public class Footer extends AbstractComponent {
   @Override
   protected void isLoaded() throws Error {
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(aboutPageBy);
-      logger.debug("The about page link is displayed");
-      container.findElement(loyaltyPageBy);
-      logger.debug("The loyalty page link is displayed");
-      container.findElement(contactPageBy);
-      logger.debug("The contact page link is displayed");
-      container.findElement(cguPageBy);
-      logger.debug("The CGU page link is displayed");
-      container.findElement(areYouRestaurantPageBy);
-      logger.debug("The are you a restaurant page link is displayed");
-      container.findElement(cookiePolicyPageBy);
-      logger.debug("The cookie policy page link is displayed");
-      container.findElement(cookieConsentPageBy);
-      logger.debug("The cookie consent page link is displayed");
-      container.findElement(faqPageBy);
-      logger.debug("The FAQ page link is displayed");
-      container.findElement(careersPageBy);
-      logger.debug("The careers page link is displayed");
-      container.findElement(michelinPageBy);
-      logger.debug("The michelin page link is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      verifyPresent(container, "The footer component was not loaded correctly",
+              aboutPageBy, loyaltyPageBy, contactPageBy, cguPageBy, areYouRestaurantPageBy,
+              cookiePolicyPageBy, cookieConsentPageBy, faqPageBy, careersPageBy, michelinPageBy);
     } catch (Exception e) {
       throwNotLoadedException("The footer component was not loaded correctly", e);
     }
@@ -1,11 +1,10 @@
 package pageobjects.components;
 
-import driver.DriverBase;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import pageobjects.base.AbstractComponent;
+import pageobjects.base.ElementProbe;
+import pageobjects.base.Waits;
 import utils.TestReporter;
 
 public class HeaderNoSearch extends AbstractComponent {
@@ -14,8 +13,10 @@ public class HeaderNoSearch extends AbstractComponent {
   protected static final By logoBy = By.cssSelector("[data-test='brand-logo']");
   private static final By loginButtonBy = By.cssSelector("button[data-test='user-space']");
   private static final By sidebarContainerBy = By.id("USER_SPACE_FIRST_PANEL");
-
-  private static final int TIMEOUT_TO_OPEN_SIDEBAR = 10;
+  private static final By closeSidebarButtonBy =
+          By.cssSelector("button[aria-controls='USER_SPACE_FIRST_PANEL']");
+  private static final By logoutButtonBy = By.cssSelector("button[data-test='LOGOUT_BTN']");
+  private static final By emailInputBy = By.id("identification_email");
 
   public HeaderNoSearch(WebElement container) {
     super(container);
@@ -29,9 +30,8 @@ public class HeaderNoSearch extends AbstractComponent {
     TestReporter.addInfoToReport("Open sidebar when not logged in");
     container.findElement(loginButtonBy).click();
     logger.debug("Wait until sidebar container is displayed");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_OPEN_SIDEBAR);
-    WebElement sidebarContainer =
-            wait.until(ExpectedConditions.visibilityOfElementLocated(sidebarContainerBy));
+    WebElement sidebarContainer = Waits.untilVisible("sidebar.open.not-logged-in",
+            sidebarContainerBy);
     logger.debug("Sidebar container is displayed");
     SidebarNotLoggedIn sidebarNotLoggedIn = new SidebarNotLoggedIn(sidebarContainer);
     sidebarNotLoggedIn.get();
@@ -46,24 +46,47 @@ public class HeaderNoSearch extends AbstractComponent {
     TestReporter.addInfoToReport("Open sidebar when logged in");
     container.findElement(loginButtonBy).click();
     logger.debug("Wait until sidebar container is displayed");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_OPEN_SIDEBAR);
-    WebElement sidebarContainer =
-            wait.until(ExpectedConditions.visibilityOfElementLocated(sidebarContainerBy));
+    WebElement sidebarContainer = Waits.untilVisible("sidebar.open.logged-in", sidebarContainerBy);
     logger.debug("Sidebar container is displayed");
     SidebarLoggedIn sidebarLoggedIn = new SidebarLoggedIn(sidebarContainer);
     sidebarLoggedIn.get();
     return sidebarLoggedIn;
   }
 
+  /**
+   * Checks if the user is logged in, from the content of the sidebar. The sidebar is opened and
+   * closed again, a full UI round trip each time it is called.
+   * @return True if the logged in sidebar is displayed. False otherwise.
+   */
+  public boolean isUserLoggedIn() {
+    logger.debug("Check if the user is logged in");
+    container.findElement(loginButtonBy).click();
+    WebElement sidebarContainer = Waits.untilVisible("sidebar.open.check", sidebarContainerBy);
+
+    // the logged in and the not logged in sidebars are probed together until one is displayed
+    ElementProbe elements = Waits.until("sidebar.open.check", driver -> {
+      ElementProbe sidebar = probe(sidebarContainer, logoutButtonBy, emailInputBy,
+              closeSidebarButtonBy);
+      return sidebar.isPresent(logoutButtonBy) || sidebar.isPresent(emailInputBy)
+              ? sidebar : null;
+    });
+    boolean loggedIn = elements.isPresent(logoutButtonBy);
+    logger.debug("The user is {}", loggedIn ? "logged in" : "not logged in");
+
+    WebElement closeSidebarButton = elements.isPresent(closeSidebarButtonBy)
+            ? elements.getElement(closeSidebarButtonBy)
+            : sidebarContainer.findElement(closeSidebarButtonBy);
+    closeSidebarButton.click();
+    Waits.untilInvisible("sidebar.close", sidebarContainer);
+    return loggedIn;
+  }
 
   @Override
   protected void isLoaded() throws Error {
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(logoBy);
-      logger.debug("Logo is displayed");
-      container.findElement(loginButtonBy);
-      logger.debug("Login button is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      verifyPresent(container, "The header no search component was not loaded correctly",
+              logoBy, loginButtonBy);
     } catch (Exception e) {
       throwNotLoadedException("The header no search component was not loaded correctly", e);
     }
@@ -1,13 +1,13 @@
 package pageobjects.components;
 
-import driver.DriverBase;
+import java.util.Collections;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.util.Strings;
 import pageobjects.base.AbstractComponent;
+import pageobjects.base.Waits;
 import pageobjects.pages.SearchPage;
 import utils.TestReporter;
 
@@ -27,9 +27,8 @@ public class SearchComponent extends AbstractComponent {
   private static final String VALUE_ATTRIBUTE = "value";
   private static final String AUTOCOMPLETE_VISIBLE = "Autocomplete is visible";
 
-  private static final int TIMEOUT_FOR_AUTOCOMPLETE = 10;
-  private static final int TIMEOUT_CLEAR_BUTTON = 2;
-  private static final int TIMEOUT_SEARCH_BUTTON_CLICKABLE = 10;
+  private static final String WAIT_AUTOCOMPLETE = "autocomplete";
+  private static final String WAIT_AUTOCOMPLETE_OPTION = "autocomplete.option";
 
   public SearchComponent(WebElement container) {
     super(container);
@@ -41,6 +40,12 @@ public class SearchComponent extends AbstractComponent {
    */
   public void enterWhat(String what) {
     logger.debug("Enter what: {}", what);
+    if (isFastFormFillEnabled()) {
+      fillInputs(container, Collections.singletonMap(whatInputBy, what));
+      logger.debug("Filled '{}' in what field", what);
+      container.findElement(labelWhatBy).click();
+      return;
+    }
     WebElement whatInput = container.findElement(whatInputBy);
 
     String whatInputContent = whatInput.getAttribute(VALUE_ATTRIBUTE);
@@ -60,23 +65,27 @@ public class SearchComponent extends AbstractComponent {
    */
   public void enterWhere(String where) {
     logger.debug("Enter where: {}", where);
-    WebElement whereInput = container.findElement(whereInputBy);
-
-    String whereInputContent = whereInput.getAttribute(VALUE_ATTRIBUTE);
-    if (!Strings.isNullOrEmpty(whereInputContent)) {
-      logger.debug("The where field contains the text: {}", whereInputContent);
-      clearWhereField();
+    if (isFastFormFillEnabled()) {
+      // click outside to clear the focus, the script replaces the whole value
+      container.findElement(labelWhereBy).click();
+      fillInputs(container, Collections.singletonMap(whereInputBy, where));
+    } else {
+      WebElement whereInput = container.findElement(whereInputBy);
+
+      String whereInputContent = whereInput.getAttribute(VALUE_ATTRIBUTE);
+      if (!Strings.isNullOrEmpty(whereInputContent)) {
+        logger.debug("The where field contains the text: {}", whereInputContent);
+        clearWhereField();
+      }
+
+      // click outside to clear the focus
+      container.findElement(labelWhereBy).click();
+      whereInput.sendKeys(where);
     }
-
-    // click outside to clear the focus
-    container.findElement(labelWhereBy).click();
-    whereInput.sendKeys(where);
     logger.debug("Entered '{}' in where field", where);
 
     logger.debug("Wait for autocomplete to appear");
-    WebDriverWait waitAutocomplete =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_FOR_AUTOCOMPLETE);
-    waitAutocomplete.until(ExpectedConditions.visibilityOfElementLocated(autocompleteBy));
+    Waits.untilVisible(WAIT_AUTOCOMPLETE, autocompleteBy);
     logger.debug(AUTOCOMPLETE_VISIBLE);
   }
 
@@ -89,6 +98,7 @@ public class SearchComponent extends AbstractComponent {
     waitUntilSearchButtonIsClickable();
     container.findElement(searchButtonBy).click();
     logger.debug("Clicked on search button");
+    waitForNetworkIdle();
     SearchPage searchPage = new SearchPage();
     searchPage.get();
     return searchPage;
@@ -101,13 +111,12 @@ public class SearchComponent extends AbstractComponent {
   public void selectFromAutocomplete(String text) {
     logger.debug("Select '{}' from autocomplete", text);
     clickAutocompleteOption(text);
+    waitForNetworkIdle();
     waitUntilSearchButtonIsClickable();
   }
 
   private static void clickAutocompleteOption(String text) {
-    WebDriverWait waitAutocomplete =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_FOR_AUTOCOMPLETE);
-    waitAutocomplete.until(ExpectedConditions.visibilityOfElementLocated(autocompleteBy));
+    Waits.untilVisible(WAIT_AUTOCOMPLETE, autocompleteBy);
     logger.debug(AUTOCOMPLETE_VISIBLE);
 
     By selectorLink = By.cssSelector(
@@ -116,8 +125,7 @@ public class SearchComponent extends AbstractComponent {
                     "button[aria-label='" + text + "']"
     );
 
-    WebElement autocompleteResult = waitAutocomplete.until(
-            ExpectedConditions.presenceOfElementLocated(selectorLink));
+    WebElement autocompleteResult = Waits.untilPresent(WAIT_AUTOCOMPLETE_OPTION, selectorLink);
 
     String autocompleteLinkText = autocompleteResult.getText();
     TestReporter.addInfoToReport("Click on autocomplete option with text '"
@@ -133,9 +141,7 @@ public class SearchComponent extends AbstractComponent {
    * @return if the text exists in the autocomplete result.
    */
   public boolean autocompleteContains(String text) {
-    WebDriverWait waitAutocomplete =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_FOR_AUTOCOMPLETE);
-    waitAutocomplete.until(ExpectedConditions.visibilityOfElementLocated(autocompleteBy));
+    Waits.untilVisible(WAIT_AUTOCOMPLETE, autocompleteBy);
     logger.debug(AUTOCOMPLETE_VISIBLE);
 
     By selectorLink = By.cssSelector(
@@ -146,8 +152,7 @@ public class SearchComponent extends AbstractComponent {
     logger.debug("Autocomplete result selector: {}", selectorLink);
 
     try {
-      return waitAutocomplete.until(
-              ExpectedConditions.presenceOfElementLocated(selectorLink)).isDisplayed();
+      return Waits.untilPresent(WAIT_AUTOCOMPLETE_OPTION, selectorLink).isDisplayed();
     } catch (NoSuchElementException e) {
       logger.error("The option to be selected was not found", e);
       return false;
@@ -169,10 +174,7 @@ public class SearchComponent extends AbstractComponent {
     container.findElement(labelWhereBy).click();
     whereInput.click();
 
-    WebDriverWait waitAutocomplete =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_FOR_AUTOCOMPLETE);
-    WebElement autocomplete = waitAutocomplete
-            .until(ExpectedConditions.visibilityOfElementLocated(autocompleteBy));
+    WebElement autocomplete = Waits.untilVisible(WAIT_AUTOCOMPLETE, autocompleteBy);
     logger.debug(AUTOCOMPLETE_VISIBLE);
     autocomplete.findElement(autocompleteFirstLinkBy).click();
     logger.debug("Selected Near Me");
@@ -192,14 +194,11 @@ public class SearchComponent extends AbstractComponent {
     }
     whatInput.click();
 
-    WebDriverWait waitAutocomplete =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_FOR_AUTOCOMPLETE);
-    WebElement autocomplete = waitAutocomplete
-            .until(ExpectedConditions.visibilityOfElementLocated(autocompleteBy));
+    WebElement autocomplete = Waits.untilVisible(WAIT_AUTOCOMPLETE, autocompleteBy);
     logger.debug(AUTOCOMPLETE_VISIBLE);
     autocomplete.findElement(autocompleteFirstLinkBy).click();
     logger.debug("Selected all restaurants");
-    waitAutocomplete.until(ExpectedConditions.invisibilityOfElementLocated(autocompleteBy));
+    Waits.untilInvisible("autocomplete.closed", autocompleteBy);
     logger.debug("Autocomplete is closed");
 
     waitUntilSearchButtonIsClickable();
@@ -214,8 +213,7 @@ public class SearchComponent extends AbstractComponent {
     container.findElement(clearWhatButtonBy).click();
     logger.debug("Clicked clear button in what field");
     logger.debug("Wait until clear button is not visible");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_CLEAR_BUTTON);
-    wait.until(ExpectedConditions.invisibilityOfElementLocated(clearWhatButtonBy));
+    Waits.untilInvisible("clear-button.what", clearWhatButtonBy);
     logger.debug("Clear button is not visible");
   }
 
@@ -228,15 +226,13 @@ public class SearchComponent extends AbstractComponent {
     container.findElement(clearWhereButtonBy).click();
     logger.debug("Clicked clear button in where field");
     logger.debug("Wait until clear button is not visible");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_CLEAR_BUTTON);
-    wait.until(ExpectedConditions.invisibilityOfElementLocated(clearWhereButtonBy));
+    Waits.untilInvisible("clear-button.where", clearWhereButtonBy);
     logger.debug("Clear button is not visible");
   }
 
   private static void waitUntilSearchButtonIsClickable() {
     logger.debug("Wait until the search button is clickable");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_SEARCH_BUTTON_CLICKABLE);
-    wait.until(ExpectedConditions.elementToBeClickable(searchButtonBy));
+    Waits.until("search-button", ExpectedConditions.elementToBeClickable(searchButtonBy));
     logger.debug("The search button is clickable");
   }
 
@@ -258,17 +254,9 @@ public class SearchComponent extends AbstractComponent {
   @Override
   protected void isLoaded() throws Error {
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(whatInputBy);
-      logger.debug("What input is displayed");
-      container.findElement(whereInputBy);
-      logger.debug("Where input is displayed");
-      container.findElement(searchButtonBy);
-      logger.debug("Search button is displayed");
-      container.findElement(labelWhereBy);
-      logger.debug("Where label is displayed");
-      container.findElement(labelWhatBy);
-      logger.debug("What label is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      verifyPresent(container, "The search component was not loaded correctly",
+              whatInputBy, whereInputBy, searchButtonBy, labelWhereBy, labelWhatBy);
     } catch (Exception e) {
       throwNotLoadedException("The search component was not loaded correctly", e);
     }
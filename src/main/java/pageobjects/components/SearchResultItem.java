@@ -1,28 +1,107 @@
 package pageobjects.components;
 
+import driver.DriverBase;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import pageobjects.base.AbstractComponent;
+import pageobjects.base.DomEpochCache;
+import pageobjects.base.ElementProbe;
 
 public class SearchResultItem extends AbstractComponent {
 
   // Selectors
-  private static final By pictureBy = By.tagName("img");
-  private static final By insiderPictureTag = By.cssSelector("[data-test='insider-medal']");
-  private static final By timeslotListBy = By.cssSelector("li > a");
-  private static final By imageContainerBy = By.cssSelector("div > div");
-  private static final By restaurantContainerBy = By.cssSelector("div > div + div");
+  private static final String PICTURE_CSS = "img";
+  private static final String INSIDER_PICTURE_TAG_CSS = "[data-test='insider-medal']";
+  private static final String TIMESLOT_LIST_CSS = "li > a";
+  private static final String TIMESLOT_OFFER_CSS = "span";
+  private static final String IMAGE_CONTAINER_CSS = "div > div";
+  private static final String RESTAURANT_CONTAINER_CSS = "div > div + div";
+  private static final String RESTAURANT_NAME_CSS = "a";
+  private static final String CUISINE_TAG_CSS = "[data-test='search-restaurant-tags-DEFAULT']";
+
+  private static final By pictureBy = By.tagName(PICTURE_CSS);
+  private static final By insiderPictureTag = By.cssSelector(INSIDER_PICTURE_TAG_CSS);
+  private static final By timeslotListBy = By.cssSelector(TIMESLOT_LIST_CSS);
+  private static final By timeslotOfferBy = By.tagName(TIMESLOT_OFFER_CSS);
+  private static final By imageContainerBy = By.cssSelector(IMAGE_CONTAINER_CSS);
+  private static final By restaurantContainerBy = By.cssSelector(RESTAURANT_CONTAINER_CSS);
 
   private static final String NUMBER_OF_TIMESLOTS = "There are {} timeslots";
   private static final String EMPTY_TIMESLOTS = "The list of timeslots is empty";
   private static final String INDEX_GREATER_NUMBER_OF_TIMESLOTS =
           "The index {} is greater than the number of timeslots {}";
-  private static final By restaurantNameBy = By.tagName("a");
-  private static final By cuisineTagBy = By.cssSelector("[data-test='search-restaurant-tags-DEFAULT']");
+  private static final By restaurantNameBy = By.tagName(RESTAURANT_NAME_CSS);
+  private static final By cuisineTagBy = By.cssSelector(CUISINE_TAG_CSS);
+
+  /**
+   * CSS selectors of the data read by the item script.
+   */
+  private static final Map<String, String> ITEM_SELECTORS = Map.of(
+          "name", RESTAURANT_NAME_CSS,
+          "imageContainer", IMAGE_CONTAINER_CSS,
+          "restaurantContainer", RESTAURANT_CONTAINER_CSS,
+          "picture", PICTURE_CSS,
+          "insiderPictureTag", INSIDER_PICTURE_TAG_CSS,
+          "cuisineTag", CUISINE_TAG_CSS,
+          "timeslot", TIMESLOT_LIST_CSS,
+          "offer", TIMESLOT_OFFER_CSS);
+
+  /**
+   * Reads the data of an item. The visibility and the texts are the ones of ElementProbe, the
+   * texts are null when the element is not found.
+   */
+  private static final String ITEM_FUNCTION =
+          "function (card, selectors) {"
+          + "   var isVisible = " + ElementProbe.VISIBLE_FUNCTION + ";"
+          + "   var getText = " + ElementProbe.TEXT_FUNCTION + ";"
+          + "   function visible(element) { return null !== element && isVisible(element); }"
+          + "   function text(element) { return null === element ? null : getText(element); }"
+          + "   var timeslots = card.querySelectorAll(selectors.timeslot);"
+          + "   return {"
+          + "     name: text(card.querySelector(selectors.name)),"
+          + "     imageContainer: null !== card.querySelector(selectors.imageContainer),"
+          + "     restaurantContainer: null !== card.querySelector(selectors.restaurantContainer),"
+          + "     picture: visible(card.querySelector(selectors.picture)),"
+          + "     insiderPictureTag: visible(card.querySelector(selectors.insiderPictureTag)),"
+          + "     cuisineTag: text(card.querySelector(selectors.cuisineTag)),"
+          + "     timeslots: Array.prototype.map.call(timeslots, function (timeslot) {"
+          + "       var offer = timeslot.querySelector(selectors.offer);"
+          + "       return {"
+          + "         text: text(timeslot), offer: text(offer), offerVisible: visible(offer)"
+          + "       };"
+          + "     })"
+          + "   };"
+          + " }";
 
+  /**
+   * Reads the data of all the result items of a list, and the DOM epoch of each item.
+   */
+  private static final String SNAPSHOT_SCRIPT =
+          "var readItem = " + ITEM_FUNCTION + ";"
+          + " var epoch = " + DomEpochCache.EPOCH_FUNCTION + ";"
+          + " var cards = arguments[1] ? arguments[0].querySelectorAll(arguments[1])"
+          + "     : [arguments[0]];"
+          + " var selectors = arguments[2];"
+          + " return Array.prototype.map.call(cards, function (card) {"
+          + "   return {card: card, epoch: epoch(card), data: readItem(card, selectors)};"
+          + " });";
+
+  /**
+   * Data of the item, read again only when the DOM of the item changed. Only used with
+   * JavaScript.
+   */
+  private final DomEpochCache<Snapshot> data = new DomEpochCache<>(ITEM_FUNCTION, Snapshot::new);
+
+  /**
+   * Data the item was read with, checked by the first isLoaded() without reading the page again.
+   */
+  private Snapshot loadedSnapshot;
 
   /**
    * Initializes the selectors specific to the search result item on the search results page.
@@ -30,8 +109,67 @@ public class SearchResultItem extends AbstractComponent {
    */
   public SearchResultItem(WebElement container) {
     super(container);
+  }
+
+  private SearchResultItem(WebElement container, Snapshot snapshot, String epoch) {
+    this(container);
+    data.seed(epoch, snapshot);
+    loadedSnapshot = snapshot;
+  }
+
+  /**
+   * Reads all the result items of a list in a single executeScript. With JavaScript, the getters
+   * of all the items, whether read by this method or not, answer from the data of the item, read
+   * again only when the DOM of the item changed since it was read: the answer is always the one
+   * of the current page, as with findElement, in one round trip that only carries the epoch
+   * while the item is unchanged. Needs JavaScript.
+   * @param listContainer the container of the search result list
+   * @param itemSelector the CSS selector of the result items in the list
+   * @return the result items, in the order of the page
+   */
+  static List<SearchResultItem> readAll(WebElement listContainer, String itemSelector) {
+    return runSnapshotScript(listContainer, itemSelector);
+  }
+
+  /**
+   * Reads one result item in a single executeScript, as readAll() does for the whole list.
+   * @param container the container of the Search Result Item
+   * @return the result item
+   */
+  static SearchResultItem read(WebElement container) {
+    return runSnapshotScript(container, "").get(0);
+  }
 
-    // initializes selectors to be used by the super class
+  private static List<SearchResultItem> runSnapshotScript(WebElement root, String itemSelector) {
+    // without item selector, the root is the only item read
+    List<?> result = (List<?>) ((JavascriptExecutor) DriverBase.getDriver())
+            .executeScript(SNAPSHOT_SCRIPT, root, itemSelector, ITEM_SELECTORS);
+    List<SearchResultItem> items = new ArrayList<>();
+    for (Object card : result) {
+      Map<?, ?> item = (Map<?, ?>) card;
+      items.add(new SearchResultItem((WebElement) item.get("card"),
+              new Snapshot(item.get("data")), String.valueOf(item.get("epoch"))));
+    }
+    return items;
+  }
+
+  /**
+   * Gets the data of the item from the cache, read again from the page only if its DOM changed.
+   */
+  private Snapshot readSnapshot() {
+    return data.get(container, ITEM_SELECTORS);
+  }
+
+  /**
+   * Gets the name of the restaurant.
+   * @return the name of the restaurant.
+   */
+  public String getRestaurantName() {
+    logger.debug("Get the restaurant name");
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return Snapshot.require(readSnapshot().name, restaurantNameBy);
+    }
+    return container.findElement(restaurantNameBy).getText();
   }
 
   /**
@@ -40,6 +178,9 @@ public class SearchResultItem extends AbstractComponent {
    */
   public boolean hasPicture() {
     logger.debug("Has picture tag");
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return readSnapshot().picture;
+    }
     try {
       return container.findElement(pictureBy).isDisplayed();
     } catch (NoSuchElementException e) {
@@ -54,6 +195,9 @@ public class SearchResultItem extends AbstractComponent {
    */
   public boolean hasInsiderPictureTag() {
     logger.debug("Has insider picture tag");
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return readSnapshot().insiderPictureTag;
+    }
     try {
       return container.findElement(insiderPictureTag).isDisplayed();
     } catch (NoSuchElementException e) {
@@ -68,6 +212,9 @@ public class SearchResultItem extends AbstractComponent {
    */
   public String getCuisineTag() {
     logger.debug("Get the cuisine tag");
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return Snapshot.require(readSnapshot().cuisineTag, cuisineTagBy);
+    }
     return container.findElement(cuisineTagBy).getText();
   }
 
@@ -80,22 +227,21 @@ public class SearchResultItem extends AbstractComponent {
   public String getTimeSlotHour(int index) {
     logger.debug("Get the hour on the timeslot index {}", index);
 
-    List<WebElement> listOfTimeSlots = container.findElements(timeslotListBy);
-    logger.debug(NUMBER_OF_TIMESLOTS, listOfTimeSlots.size());
-
-    if (listIfEmptyOrSmallerThanIndex(listOfTimeSlots, index)) {
-      throw new IllegalArgumentException();
-    } else {
-      String timeslotText = listOfTimeSlots.get(index).getText();
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return getTimeslot(index).getHour();
+    }
 
-      // we need to clean the text, remove the offer from the whole text
-      if (hasTimeSlotOffer(index)) {
-        timeslotText = timeslotText.replace(getTimeSlotOffer(index), "");
-        timeslotText = timeslotText.trim();
-      }
+    WebElement timeslot = findTimeslot(index);
+    String timeslotText = timeslot.getText();
 
-      return timeslotText;
+    // we need to clean the text, remove the offer from the whole text
+    WebElement offer = findTimeslotOffer(timeslot);
+    if (null != offer) {
+      timeslotText = timeslotText.replace(offer.getText(), "");
+      timeslotText = timeslotText.trim();
     }
+
+    return timeslotText;
   }
 
   /**
@@ -104,6 +250,9 @@ public class SearchResultItem extends AbstractComponent {
    */
   public int getNumberOfTimeslots() {
     logger.debug("Get the size of timeSlots list");
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return readSnapshot().timeslots.size();
+    }
     try {
       return container.findElements(timeslotListBy).size();
     } catch (NoSuchElementException e) {
@@ -112,7 +261,7 @@ public class SearchResultItem extends AbstractComponent {
     }
   }
 
-  private static boolean listIfEmptyOrSmallerThanIndex(@NotNull List<WebElement> listOfTimeSlots,
+  private static boolean listIfEmptyOrSmallerThanIndex(@NotNull List<?> listOfTimeSlots,
                                                        int index) {
     if (listOfTimeSlots.isEmpty()) {
       logger.error(EMPTY_TIMESLOTS);
@@ -127,6 +276,36 @@ public class SearchResultItem extends AbstractComponent {
     }
   }
 
+  private Timeslot getTimeslot(int index) {
+    List<Timeslot> listOfTimeSlots = readSnapshot().timeslots;
+    logger.debug(NUMBER_OF_TIMESLOTS, listOfTimeSlots.size());
+    if (listIfEmptyOrSmallerThanIndex(listOfTimeSlots, index)) {
+      throw new IllegalArgumentException();
+    }
+    return listOfTimeSlots.get(index);
+  }
+
+  private WebElement findTimeslot(int index) {
+    List<WebElement> listOfTimeSlots = container.findElements(timeslotListBy);
+    logger.debug(NUMBER_OF_TIMESLOTS, listOfTimeSlots.size());
+    if (listIfEmptyOrSmallerThanIndex(listOfTimeSlots, index)) {
+      throw new IllegalArgumentException();
+    }
+    return listOfTimeSlots.get(index);
+  }
+
+  /**
+   * Gets the offer of a timeslot element, null if no offer is displayed.
+   */
+  private static WebElement findTimeslotOffer(WebElement timeslot) {
+    List<WebElement> offers = timeslot.findElements(timeslotOfferBy);
+    if (offers.isEmpty() || !offers.get(0).isDisplayed()) {
+      logger.debug("No offer in the timeslot");
+      return null;
+    }
+    return offers.get(0);
+  }
+
   /**
    * Gets the offer displayed in the timeslot.
    * @param index The index of the timeslot.
@@ -135,18 +314,11 @@ public class SearchResultItem extends AbstractComponent {
   public String getTimeSlotOffer(int index) {
     logger.debug("Get the offer on the timeslot index {}", index);
 
-    List<WebElement> listOfTimeSlots = container.findElements(timeslotListBy);
-    logger.debug(NUMBER_OF_TIMESLOTS, listOfTimeSlots.size());
-
-    if (listIfEmptyOrSmallerThanIndex(listOfTimeSlots, index)) {
-      throw new IllegalArgumentException();
-    } else {
-      if (hasTimeSlotOffer(index)) {
-        return listOfTimeSlots.get(index).findElement(By.tagName("span")).getText();
-      } else {
-        return "";
-      }
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return getTimeslot(index).getOffer();
     }
+    WebElement offer = findTimeslotOffer(findTimeslot(index));
+    return null == offer ? "" : offer.getText();
   }
 
   /**
@@ -157,24 +329,25 @@ public class SearchResultItem extends AbstractComponent {
   public boolean hasTimeSlotOffer(int index) {
     logger.debug("Has timeslot offer {}", index);
 
-    List<WebElement> listOfTimeSlots = container.findElements(timeslotListBy);
-    logger.debug(NUMBER_OF_TIMESLOTS, listOfTimeSlots.size());
-
-    if (listIfEmptyOrSmallerThanIndex(listOfTimeSlots, index)) {
-      throw new IllegalArgumentException();
-    } else {
-      try {
-        return listOfTimeSlots.get(index).findElement(By.tagName("span")).isDisplayed();
-      } catch (NoSuchElementException e) {
-        logger.debug("No offer in the timeslot", e);
-        return false;
-      }
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      return getTimeslot(index).offerVisible;
     }
+    return null != findTimeslotOffer(findTimeslot(index));
   }
 
   @Override
   protected void isLoaded() throws Error {
-    // To be implemented
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      // the data the item was read with, or the current data
+      Snapshot snapshot = null != loadedSnapshot ? loadedSnapshot : readSnapshot();
+      loadedSnapshot = null;
+      if (null == snapshot.name || !snapshot.imageContainer || !snapshot.restaurantContainer) {
+        throwNotLoadedException("The search result item was not loaded correctly"
+                + "\nMissing restaurant name, image or data");
+      }
+      logger.debug("SearchResultItem component was loaded correctly from its data");
+      return;
+    }
 
     try {
       // verify that each element is displayed before continuing
@@ -190,4 +363,73 @@ public class SearchResultItem extends AbstractComponent {
 
     logger.debug("SearchResultItem component was loaded correctly");
   }
+
+  /**
+   * Data of a result item read by the item script.
+   */
+  private static final class Snapshot {
+
+    private final String name;
+    private final boolean imageContainer;
+    private final boolean restaurantContainer;
+    private final boolean picture;
+    private final boolean insiderPictureTag;
+    private final String cuisineTag;
+    private final List<Timeslot> timeslots;
+
+    Snapshot(Object item) {
+      Map<?, ?> data = (Map<?, ?>) item;
+      name = (String) data.get("name");
+      imageContainer = Boolean.TRUE.equals(data.get("imageContainer"));
+      restaurantContainer = Boolean.TRUE.equals(data.get("restaurantContainer"));
+      picture = Boolean.TRUE.equals(data.get("picture"));
+      insiderPictureTag = Boolean.TRUE.equals(data.get("insiderPictureTag"));
+      cuisineTag = (String) data.get("cuisineTag");
+      timeslots = Timeslot.parseAll(data.get("timeslots"));
+    }
+
+    /**
+     * Gets a text of the data, failing as findElement when the element was not found.
+     */
+    static String require(String text, By locator) {
+      if (null == text) {
+        throw new NoSuchElementException("Element not found in the search result item: "
+                + locator);
+      }
+      return text;
+    }
+  }
+
+  /**
+   * Text and offer of a timeslot read by the item script.
+   */
+  private static final class Timeslot {
+
+    private final String text;
+    private final String offer;
+    private final boolean offerVisible;
+
+    Timeslot(Map<?, ?> data) {
+      text = (String) data.get("text");
+      offer = (String) data.get("offer");
+      offerVisible = Boolean.TRUE.equals(data.get("offerVisible"));
+    }
+
+    static List<Timeslot> parseAll(Object data) {
+      List<Timeslot> timeslots = new ArrayList<>();
+      for (Object timeslot : (List<?>) data) {
+        timeslots.add(new Timeslot((Map<?, ?>) timeslot));
+      }
+      return timeslots;
+    }
+
+    String getOffer() {
+      return offerVisible ? offer : "";
+    }
+
+    String getHour() {
+      // the text of the timeslot includes the offer, remove it as getTimeSlotHour() does
+      return offerVisible ? text.replace(offer, "").trim() : text;
+    }
+  }
 }
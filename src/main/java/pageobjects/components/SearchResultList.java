@@ -1,6 +1,9 @@
 package pageobjects.components;
 
+import driver.DriverBase;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
@@ -9,15 +12,20 @@ import pageobjects.base.AbstractComponent;
 public class SearchResultList extends AbstractComponent {
 
   // Selectors
-  private static final By resultItemsBy = By.cssSelector(".card");
+  private static final String RESULT_ITEMS_CSS = ".card";
+  private static final By resultItemsBy = By.cssSelector(RESULT_ITEMS_CSS);
   private static final By tagYumsX2By =
           By.cssSelector("span[data-test='search-restaurant-tags-SUPER_YUMS']");
 
+  // Containers of the result items, the items are only initialized when used
+  private List<WebElement> resultItemContainers;
+
   // Components
   private final ArrayList<SearchResultItem> listOfResults;
 
   public SearchResultList(WebElement container) {
     super(container);
+    resultItemContainers = Collections.emptyList();
     listOfResults = new ArrayList<>();
   }
 
@@ -26,17 +34,55 @@ public class SearchResultList extends AbstractComponent {
    */
   public SearchResultList() {
     super(null);
+    resultItemContainers = Collections.emptyList();
     listOfResults = new ArrayList<>();
   }
 
   /**
-   * Get a SearchResultItem component.
+   * Get a SearchResultItem component. The item is initialized and verified the first time it is
+   * used.
    * @param index the index of the result item
    * @return a SearchResultItem
    */
   public SearchResultItem getResult(int index) {
     logger.debug("Get search result item: {}", index);
-    return listOfResults.get(index);
+    SearchResultItem resultItem = listOfResults.get(index);
+    if (null == resultItem) {
+      logger.debug("Initializing search result item {}", index);
+      WebElement resultItemContainer = resultItemContainers.get(index);
+      resultItem = DriverBase.getBrowserType().isJavascriptEnabled()
+              ? SearchResultItem.read(resultItemContainer)
+              : new SearchResultItem(resultItemContainer);
+      resultItem.get();
+      listOfResults.set(index, resultItem);
+    }
+    return resultItem;
+  }
+
+  /**
+   * Initializes and verifies all the search result items at once, for the tests that go through
+   * the whole list. With JavaScript, all the items are read in one round trip.
+   * @return this SearchResultList
+   */
+  public SearchResultList loadAll() {
+    logger.debug("Load all the {} search result items", resultItemContainers.size());
+    if (DriverBase.getBrowserType().isJavascriptEnabled() && null != container) {
+      List<SearchResultItem> resultItems = SearchResultItem.readAll(container, RESULT_ITEMS_CSS);
+      for (SearchResultItem resultItem : resultItems) {
+        resultItem.get();
+      }
+      resultItemContainers = new ArrayList<>();
+      listOfResults.clear();
+      for (SearchResultItem resultItem : resultItems) {
+        resultItemContainers.add(resultItem.getContainer());
+        listOfResults.add(resultItem);
+      }
+    } else {
+      for (int i = 0; i < listOfResults.size(); i++) {
+        getResult(i);
+      }
+    }
+    return this;
   }
 
   /**
@@ -45,7 +91,7 @@ public class SearchResultList extends AbstractComponent {
    */
   public int getNumberOfResults() {
     logger.debug("Get number of search result items");
-    return listOfResults.size();
+    return resultItemContainers.size();
   }
 
 
@@ -68,23 +114,21 @@ public class SearchResultList extends AbstractComponent {
   protected void isLoaded() throws Error {
 
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(resultItemsBy);
+      // gets the containers of all the result items in one round trip, the items themselves are
+      // initialized when they are used
+      resultItemContainers = container.findElements(resultItemsBy);
     } catch (Exception e) {
       throwNotLoadedException("The search result list was not loaded correctly", e);
     }
-
-    // initializes each result item and add it to the list
-    int i = 0;
-    for (WebElement resultItemContainer: container.findElements(resultItemsBy)) {
-      logger.debug("Adding search result item {} to the search result list", i);
-      i++;
-      SearchResultItem resultItem = new SearchResultItem(resultItemContainer);
-      resultItem.get();
-      listOfResults.add(resultItem);
+    if (resultItemContainers.isEmpty()) {
+      throwNotLoadedException("The search result list was not loaded correctly"
+              + "\nNo search result item found");
     }
 
-    logger.debug("SearchResultList component was loaded correctly");
+    listOfResults.clear();
+    listOfResults.addAll(Collections.nCopies(resultItemContainers.size(), null));
+
+    logger.debug("SearchResultList component was loaded correctly with {} items",
+            resultItemContainers.size());
   }
 }
-
@@ -3,9 +3,8 @@ package pageobjects.components;
 import driver.DriverBase;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import pageobjects.base.AbstractComponent;
+import pageobjects.base.Waits;
 import pageobjects.pages.HomePage;
 import utils.TestReporter;
 
@@ -30,8 +29,6 @@ public class SidebarLoggedIn extends AbstractComponent {
   private static final By totalYumsBy =
           By.cssSelector("li[data-test='USER_PROFILE_TOTAL_YUMS'] > span");
 
-  private static final int TIMEOUT_TO_CLOSE_SIDEBAR = 5;
-
   public SidebarLoggedIn(WebElement container) {
     super(container);
   }
@@ -62,8 +59,7 @@ public class SidebarLoggedIn extends AbstractComponent {
     logger.debug("Click log out");
     container.findElement(logoutButtonBy).click();
     logger.debug("Wait until sidebar is not displayed");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_CLOSE_SIDEBAR);
-    wait.until(ExpectedConditions.invisibilityOf(container));
+    Waits.untilInvisible("sidebar.close.logout", container);
     logger.debug("Delete all cookies");
     DriverBase.getDriver().manage().deleteAllCookies();
     logger.debug("Sidebar is not displayed");
@@ -79,33 +75,18 @@ public class SidebarLoggedIn extends AbstractComponent {
     TestReporter.addInfoToReport("Close sidebar");
     container.findElement(closeSidebarButtonBy).click();
     logger.debug("Wait until sidebar is not displayed");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_CLOSE_SIDEBAR);
-    wait.until(ExpectedConditions.invisibilityOf(container));
+    Waits.untilInvisible("sidebar.close", container);
     logger.debug("Sidebar is not displayed");
   }
 
   @Override
   protected void isLoaded() throws Error {
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(closeSidebarButtonBy);
-      logger.debug("Close sidebar button is displayed");
-      container.findElement(myPersonalInformationButtonBy);
-      logger.debug("My personal information button is displayed");
-      container.findElement(myReservationsButtonBy);
-      logger.debug("My reservations button is displayed");
-      container.findElement(myFavoritesButtonBy);
-      logger.debug("My Favorites button is displayed");
-      container.findElement(myReviewsButtonBy);
-      logger.debug("My reviews button is displayed");
-      container.findElement(myLoyaltySpaceButtonBy);
-      logger.debug("My loyalty space button is displayed");
-      container.findElement(logoutButtonBy);
-      logger.debug("Logout button is displayed");
-      container.findElement(usernameBy);
-      logger.debug("Username is displayed");
-      container.findElement(totalYumsBy);
-      logger.debug("Total yums is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      verifyPresent(container, "The sidebar logged in component was not loaded correctly",
+              closeSidebarButtonBy, myPersonalInformationButtonBy, myReservationsButtonBy,
+              myFavoritesButtonBy, myReviewsButtonBy, myLoyaltySpaceButtonBy, logoutButtonBy,
+              usernameBy, totalYumsBy);
     } catch (Exception e) {
       throwNotLoadedException("The sidebar logged in component was not loaded correctly", e);
     }
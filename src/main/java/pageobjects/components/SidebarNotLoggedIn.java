@@ -1,7 +1,9 @@
 package pageobjects.components;
 
 import com.neovisionaries.i18n.CountryCode;
-import driver.DriverBase;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
@@ -9,8 +11,8 @@ import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import pageobjects.base.AbstractComponent;
+import pageobjects.base.Waits;
 import utils.TestReporter;
 
 public class SidebarNotLoggedIn extends AbstractComponent {
@@ -43,9 +45,6 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   private static final By resetPasswordMsgBy =
           By.cssSelector("div[data-testid='reset-password-page']");
 
-  private static final int TIMEOUT_TO_BUTTON_ENABLED = 20;
-  private static final int TIMEOUT_TO_CHANGE_SCREEN = 20;
-
   public SidebarNotLoggedIn(WebElement container) {
     super(container);
   }
@@ -57,7 +56,7 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarNotLoggedIn enterEmail(String email) {
     TestReporter.addInfoToReport("Enter email: " + email);
-    container.findElement(emailInputBy).sendKeys(email);
+    fillInputs(container, Collections.singletonMap(emailInputBy, email));
     return this;
   }
 
@@ -68,7 +67,7 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarNotLoggedIn enterPassword(String password) {
     TestReporter.addInfoToReport("Enter password: " + password);
-    container.findElement(passwordInputBy).sendKeys(password);
+    fillInputs(container, Collections.singletonMap(passwordInputBy, password));
     return this;
   }
 
@@ -79,14 +78,12 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public SidebarNotLoggedIn continueToPasswordScreen() {
     TestReporter.addInfoToReport("Continue to password screen");
     logger.debug("Wait until continue to password screen button is clickable");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-    wait.until(ExpectedConditions.elementToBeClickable(continueToPasswordScreenButtonBy));
+    Waits.until("sidebar.button.continue",
+            ExpectedConditions.elementToBeClickable(continueToPasswordScreenButtonBy));
     logger.debug("Click continue to password screen button");
     container.findElement(continueToPasswordScreenButtonBy).click();
     logger.debug("Wait until password input is visible");
-    WebDriverWait waitNextScreen =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_CHANGE_SCREEN);
-    waitNextScreen.until(ExpectedConditions.visibilityOfElementLocated(passwordInputBy));
+    Waits.untilVisible("sidebar.screen.password", passwordInputBy);
     if (isAccountCreationSectionDisplayed()) {
       throwNotLoadedException("Password screen was not displayed");
     }
@@ -100,16 +97,15 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public SidebarLoggedIn clickLoginButtonSuccessful() {
     TestReporter.addInfoToReport("Click on log in button and log in successfully");
     logger.debug("Wait until login button is clickable");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-    wait.until(ExpectedConditions.elementToBeClickable(loginButtonBy));
+    Waits.until("sidebar.button.login", ExpectedConditions.elementToBeClickable(loginButtonBy));
     logger.debug("Click login button");
     container.findElement(loginButtonBy).click();
     logger.debug("Wait until not logged in sidebar is closed");
-    wait.until(ExpectedConditions.invisibilityOf(container));
+    Waits.untilInvisible("sidebar.screen.login-closed", container);
     logger.debug("Not logged in sidebar is closed");
     logger.debug("Wait until logged in sidebar is displayed");
-    WebElement newSidebar =
-            wait.until(ExpectedConditions.visibilityOfElementLocated(sidebarLoggedInContainerBy));
+    WebElement newSidebar = Waits.untilVisible("sidebar.screen.logged-in",
+            sidebarLoggedInContainerBy);
     logger.debug("Logged in sidebar is displayed");
     SidebarLoggedIn sidebarLoggedIn = new SidebarLoggedIn(newSidebar);
     sidebarLoggedIn.get();
@@ -123,8 +119,7 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public SidebarNotLoggedIn clickLoginButtonUnsuccessful() {
     TestReporter.addInfoToReport("Click on log in button and doesn't log in");
     logger.debug("Wait until login button is clickable");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-    wait.until(ExpectedConditions.elementToBeClickable(loginButtonBy));
+    Waits.until("sidebar.button.login", ExpectedConditions.elementToBeClickable(loginButtonBy));
     logger.debug("Click login button");
     container.findElement(loginButtonBy).click();
     return this;
@@ -150,17 +145,45 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public SidebarNotLoggedIn continueToCreatePasswordRequestScreen() {
     TestReporter.addInfoToReport("Continue to request password screen");
     logger.debug("Wait until continue to password screen button is clickable");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-    wait.until(ExpectedConditions.elementToBeClickable(continueToPasswordScreenButtonBy));
+    Waits.until("sidebar.button.continue",
+            ExpectedConditions.elementToBeClickable(continueToPasswordScreenButtonBy));
     logger.debug("Click continue to password screen button");
     container.findElement(continueToPasswordScreenButtonBy).click();
     logger.debug("Wait until create password  request message is visible");
-    WebDriverWait waitNextScreen =
-            new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_CHANGE_SCREEN);
-    waitNextScreen.until(ExpectedConditions.visibilityOfElementLocated(requestCreatePasswordBy));
+    Waits.untilVisible("sidebar.screen.create-password-request", requestCreatePasswordBy);
+    return this;
+  }
+
+  /**
+   * Continue to the account creation screen, shown when the email has no account.
+   * @return The sidebar when the user is not logged in.
+   */
+  public SidebarNotLoggedIn continueToAccountCreationScreen() {
+    TestReporter.addInfoToReport("Continue to account creation screen");
+    logger.debug("Wait until continue to password screen button is clickable");
+    Waits.until("sidebar.button.continue",
+            ExpectedConditions.elementToBeClickable(continueToPasswordScreenButtonBy));
+    logger.debug("Click continue to password screen button");
+    container.findElement(continueToPasswordScreenButtonBy).click();
+    logger.debug("Wait until account creation section is visible");
+    Waits.untilVisible("sidebar.screen.account-creation", accountCreationSectionBy);
     return this;
   }
 
+  /**
+   * Checks if the password input is displayed, in the login or the account creation screen.
+   * @return True if the password input is visible. False otherwise.
+   */
+  public boolean isPasswordInputDisplayed() {
+    logger.debug("Validating if the password input is displayed");
+    try {
+      return container.findElement(passwordInputBy).isDisplayed();
+    } catch (NoSuchElementException e) {
+      logger.debug("The password input was not found", e);
+      return false;
+    }
+  }
+
   /**
    * Checks if the Create Password message is displayed.
    * Only shown if the user was created through booking flow.
@@ -199,9 +222,7 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public boolean isInvalidPasswordDisplayed() {
     logger.debug("Check if the invalid password message is displayed");
     try {
-      WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-      return wait.until(ExpectedConditions.visibilityOfElementLocated(invalidPwdLabelBy))
-              .isDisplayed();
+      return Waits.untilVisible("sidebar.screen.invalid-password", invalidPwdLabelBy).isDisplayed();
     } catch (NoSuchElementException e) {
       logger.debug("The invalid password message was not found", e);
       return false;
@@ -216,9 +237,7 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   public boolean isResetPasswordMsgDisplayed() {
     logger.debug("Check if the reset password message is displayed");
     try {
-      WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-      return wait.until(ExpectedConditions.visibilityOfElementLocated(resetPasswordMsgBy))
-              .isDisplayed();
+      return Waits.untilVisible("sidebar.screen.reset-password", resetPasswordMsgBy).isDisplayed();
     } catch (TimeoutException e) {
       logger.debug("The reset password message was not found", e);
       return false;
@@ -232,11 +251,8 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarNotLoggedIn enterFirstName(String firstName) {
     TestReporter.addInfoToReport("Enter first name: " + firstName);
-    WebElement firstNameInput =  container.findElement(firstNameInputBy);
-    logger.debug("Clear first name input");
-    firstNameInput.clear();
-    logger.debug("Type first name: {}", firstName);
-    firstNameInput.sendKeys(firstName);
+    logger.debug("Fill first name: {}", firstName);
+    fillInputs(container, Collections.singletonMap(firstNameInputBy, firstName));
     return this;
   }
 
@@ -247,11 +263,28 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarNotLoggedIn enterLastName(String lastName) {
     TestReporter.addInfoToReport("Enter last name: " + lastName);
-    WebElement firstNameInput =  container.findElement(lastNameInputBy);
-    logger.debug("Clear last name input");
-    firstNameInput.clear();
-    logger.debug("Type last name: {}", lastName);
-    firstNameInput.sendKeys(lastName);
+    logger.debug("Fill last name: {}", lastName);
+    fillInputs(container, Collections.singletonMap(lastNameInputBy, lastName));
+    return this;
+  }
+
+  /**
+   * Enters the first name, last name and phone number of the account creation screen, in one
+   * round trip with -DfastFormFill=true.
+   * @param firstName The first name of the user.
+   * @param lastName The last name of the user.
+   * @param phoneNumber The phone number of the user.
+   * @return The sidebar when the user is not logged in.
+   */
+  public SidebarNotLoggedIn fillRegistrationForm(String firstName, String lastName,
+                                                 String phoneNumber) {
+    TestReporter.addInfoToReport("Enter first name: " + firstName + ", last name: " + lastName
+            + ", phone number: " + phoneNumber);
+    Map<By, String> values = new LinkedHashMap<>();
+    values.put(firstNameInputBy, firstName);
+    values.put(lastNameInputBy, lastName);
+    values.put(phoneInputBy, phoneNumber);
+    fillInputs(container, values);
     return this;
   }
 
@@ -276,11 +309,8 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarNotLoggedIn enterPhoneNumber(String phoneNumber) {
     TestReporter.addInfoToReport("Enter phone number: " + phoneNumber);
-    WebElement phoneInput =  container.findElement(phoneInputBy);
-    logger.debug("Clear phone number input");
-    phoneInput.clear();
-    logger.debug("Type phone number: {}", phoneNumber);
-    phoneInput.sendKeys(phoneNumber);
+    logger.debug("Fill phone number: {}", phoneNumber);
+    fillInputs(container, Collections.singletonMap(phoneInputBy, phoneNumber));
     return this;
   }
 
@@ -290,16 +320,16 @@ public class SidebarNotLoggedIn extends AbstractComponent {
    */
   public SidebarLoggedIn registerAccount() {
     TestReporter.addInfoToReport("Click on button register the account");
-    WebDriverWait wait = new WebDriverWait(DriverBase.getDriver(), TIMEOUT_TO_BUTTON_ENABLED);
-    wait.until(ExpectedConditions.elementToBeClickable(registerButtonBy));
+    Waits.until("sidebar.button.register",
+            ExpectedConditions.elementToBeClickable(registerButtonBy));
     logger.debug("Click register button");
     container.findElement(registerButtonBy).click();
     logger.debug("Wait until not logged in sidebar is closed");
-    wait.until(ExpectedConditions.invisibilityOf(container));
+    Waits.untilInvisible("sidebar.screen.register-closed", container);
     logger.debug("Not logged in sidebar is closed");
     logger.debug("Wait until logged in sidebar is displayed");
-    WebElement newSidebar =
-            wait.until(ExpectedConditions.visibilityOfElementLocated(sidebarLoggedInContainerBy));
+    WebElement newSidebar = Waits.untilVisible("sidebar.screen.logged-in",
+            sidebarLoggedInContainerBy);
     logger.debug("Logged in sidebar is displayed");
     SidebarLoggedIn sidebarLoggedIn = new SidebarLoggedIn(newSidebar);
     sidebarLoggedIn.get();
@@ -309,13 +339,9 @@ public class SidebarNotLoggedIn extends AbstractComponent {
   @Override
   protected void isLoaded() throws Error {
     try {
-      // verify that each element is displayed before continuing
-      container.findElement(emailInputBy);
-      logger.debug("Email input button is displayed");
-      container.findElement(continueToPasswordScreenButtonBy);
-      logger.debug("Continue to password screen button is displayed");
-      container.findElement(closeSidebarButtonBy);
-      logger.debug("Close sidebar button is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      verifyPresent(container, "The sidebar not logged in component was not loaded correctly",
+              emailInputBy, continueToPasswordScreenButtonBy, closeSidebarButtonBy);
     } catch (Exception e) {
       throwNotLoadedException("The sidebar not logged in component was not loaded correctly", e);
     }
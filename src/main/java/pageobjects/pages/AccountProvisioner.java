@@ -0,0 +1,296 @@
+package pageobjects.pages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neovisionaries.i18n.CountryCode;
+import driver.DriverBase;
+import environment.EnvironmentConfig;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import pageobjects.components.SidebarNotLoggedIn;
+import utils.RandomStringGenerator;
+import utils.TestAccount;
+import utils.TestAccountProvider;
+
+/**
+ * Registers new test accounts until the TestAccountProvider has one account per thread, so the
+ * logged in tests don't wait for each other's accounts. The accounts are registered in background
+ * while the first tests run, through the registration-url of the account-provisioning section of
+ * the config file when set, or through the sidebar otherwise, and saved in the cache file to be
+ * reused by the next runs.
+ */
+public final class AccountProvisioner {
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(AccountProvisioner.class);
+
+  private static final String THREAD_ID = "threadId";
+  private static final String DEFAULT_CACHE_FILE = "test-data/provisionedAccounts.json";
+  private static final long HTTP_TIMEOUT_SECONDS = 30;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final HttpClient httpClient = HttpClient.newBuilder()
+          .connectTimeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
+          .build();
+  private static final SecureRandom random = new SecureRandom();
+  private static final RandomStringGenerator idGenerator = new RandomStringGenerator(10, random,
+          RandomStringGenerator.LOWERCASE + RandomStringGenerator.DIGITS);
+  private static final RandomStringGenerator nameGenerator = new RandomStringGenerator(6, random,
+          RandomStringGenerator.LOWERCASE);
+  private static final RandomStringGenerator passwordGenerator =
+          new RandomStringGenerator(12, random);
+  private static final RandomStringGenerator phoneGenerator = new RandomStringGenerator(8, random,
+          RandomStringGenerator.DIGITS);
+
+  private static final AtomicInteger registeredOverHttp = new AtomicInteger();
+  private static final AtomicInteger registeredInBrowser = new AtomicInteger();
+  private static final AtomicInteger failed = new AtomicInteger();
+
+  private static ExecutorService executor;
+
+  /**
+   * Private constructor.
+   */
+  private AccountProvisioner() {
+  }
+
+  /**
+   * Tells if the accounts are provisioned, requested with -DprovisionAccounts=true.
+   * @return true if the missing accounts must be registered
+   */
+  public static boolean isEnabled() {
+    return Boolean.getBoolean("provisionAccounts");
+  }
+
+  /**
+   * Adds the accounts of the cache file to the TestAccountProvider, and starts registering the
+   * accounts still missing to have one account per thread in background.
+   */
+  public static synchronized void start() {
+    int cached = 0;
+    for (TestAccount account : readCache()) {
+      if (!TestAccountProvider.hasAccount(account.email())) {
+        TestAccountProvider.addAccount(account);
+        cached++;
+      }
+    }
+    int threads = Integer.parseInt(System.getProperty("threads", "1"));
+    int missing = threads - TestAccountProvider.getAccountCount();
+    logger.info("{} test accounts from the cache file, {} accounts to register for {} threads",
+            cached, Math.max(missing, 0), threads);
+    if (missing <= 0) {
+      return;
+    }
+    // a single thread, the accounts registered in the browser take a session of the pool
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "account-provisioner");
+      thread.setDaemon(true);
+      return thread;
+    });
+    for (int i = 0; i < missing; i++) {
+      executor.submit(AccountProvisioner::provisionAccount);
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Stops registering accounts and logs the number of accounts registered.
+   */
+  public static synchronized void stop() {
+    if (null != executor) {
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
+    }
+    logger.info("Provisioned test accounts: {} registered over HTTP, {} in the browser, "
+            + "{} failed", registeredOverHttp.get(), registeredInBrowser.get(), failed.get());
+  }
+
+  private static void provisionAccount() {
+    TestAccount account = newAccount();
+    try {
+      String registrationUrl = EnvironmentConfig.getAccountProvisioningSetting(
+              "registration-url", "");
+      if (!registrationUrl.isEmpty() && registerOverHttp(registrationUrl, account)) {
+        registeredOverHttp.incrementAndGet();
+      } else {
+        registerInBrowser(account);
+        registeredInBrowser.incrementAndGet();
+      }
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      logger.error("Unable to register the test account {}", account.email(), e);
+      return;
+    }
+    saveToCache(account);
+    TestAccountProvider.addAccount(account);
+  }
+
+  private static TestAccount newAccount() {
+    String email = EnvironmentConfig.getAccountProvisioningSetting("email-prefix", "qa")
+            + "+" + idGenerator.nextString() + "@"
+            + EnvironmentConfig.getAccountProvisioningSetting("email-domain", "fork.com");
+    // upper case, lower case, digit and symbol, whatever the generated characters
+    String password = "Qa@1" + passwordGenerator.nextString();
+    return new TestAccount(email, password, "Qa" + nameGenerator.nextString(),
+            "Auto" + nameGenerator.nextString(), "");
+  }
+
+  private static String newPhoneNumber() {
+    return "6" + phoneGenerator.nextString();
+  }
+
+  /**
+   * Registers the account with a POST of the account as JSON.
+   * @return true if the account was registered, false to register it in the browser instead
+   */
+  private static boolean registerOverHttp(String registrationUrl, TestAccount account)
+          throws InterruptedException {
+    Map<String, String> body = new LinkedHashMap<>();
+    body.put("email", account.email());
+    body.put("password", account.password());
+    body.put("firstName", account.firstName());
+    body.put("lastName", account.lastName());
+    body.put("countryCode", getCountryCode().getAlpha2());
+    body.put("phoneNumber", newPhoneNumber());
+    try {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(registrationUrl))
+              .timeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+              .build();
+      HttpResponse<String> response = httpClient.send(request,
+              HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() / 100 == 2) {
+        logger.info("Test account {} registered over HTTP", account.email());
+        return true;
+      }
+      logger.warn("Registration of {} over HTTP answered {}, registering it in the browser",
+              account.email(), response.statusCode());
+    } catch (IOException | IllegalArgumentException e) {
+      logger.warn("Registration of {} over HTTP failed, registering it in the browser",
+              account.email(), e);
+    }
+    return false;
+  }
+
+  /**
+   * Registers the account through the sidebar. Like a test, the provisioner thread borrows a
+   * worker slot, whose log file gets the logs of the registration, and a session of the pool,
+   * both given back at the end of the registration. The account is logged in after the
+   * registration, its authentication state is kept for the tests.
+   * @throws IllegalStateException if the account creation screen asks for no password, the
+   *                               account could not log in with its password
+   */
+  private static void registerInBrowser(TestAccount account) {
+    try {
+      HomePage homePage = new HomePage();
+      homePage.get();
+      SidebarNotLoggedIn sidebar = homePage.header()
+              .openSidebarNotLoggedIn()
+              .enterEmail(account.email())
+              .continueToAccountCreationScreen();
+      if (!sidebar.isPasswordInputDisplayed()) {
+        throw new IllegalStateException("The account creation screen asks for no password, "
+                + account.email() + " would not be able to log in");
+      }
+      sidebar.enterPassword(account.password())
+              .selectCountryCode(getCountryCode())
+              .fillRegistrationForm(account.firstName(), account.lastName(), newPhoneNumber())
+              .registerAccount();
+      logger.info("Test account {} registered in the browser", account.email());
+      AuthStateCache.store(account);
+    } finally {
+      DriverBase.quitWebDriver();
+      // the slot was given back, its log file is now the one of another test
+      ThreadContext.remove(THREAD_ID);
+    }
+  }
+
+  private static CountryCode getCountryCode() {
+    return CountryCode.getByCode(EnvironmentConfig.getAccountProvisioningSetting(
+            "country-code", "FR").toUpperCase(Locale.ROOT));
+  }
+
+  private static Path getCacheFile() {
+    return Paths.get(EnvironmentConfig.getAccountProvisioningSetting("cache-file",
+            DEFAULT_CACHE_FILE));
+  }
+
+  private static List<TestAccount> readCache() {
+    Path cacheFile = getCacheFile();
+    if (!Files.isRegularFile(cacheFile)) {
+      return new ArrayList<>();
+    }
+    try {
+      return new ArrayList<>(Arrays.asList(mapper.readValue(cacheFile.toFile(),
+              TestAccount[].class)));
+    } catch (IOException e) {
+      logger.error("Unable to read the test accounts cache file {}", cacheFile, e);
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * Adds an account to the cache file. The file is only updated under the lock of its lock file,
+   * shared with the other runs, and replaced by an atomic move, so the runs reading it never see
+   * a partial file and two runs saving accounts at the same time don't lose any.
+   */
+  private static synchronized void saveToCache(TestAccount account) {
+    Path cacheFile = getCacheFile().toAbsolutePath();
+    Path directory = cacheFile.getParent();
+    Path lockFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".lock");
+    try {
+      Files.createDirectories(directory);
+      try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE);
+           FileLock ignored = channel.lock()) {
+        List<TestAccount> accounts = readCache();
+        accounts.add(account);
+        Path temporaryFile = Files.createTempFile(directory, cacheFile.getFileName().toString(),
+                ".tmp");
+        try {
+          mapper.writerWithDefaultPrettyPrinter().writeValue(temporaryFile.toFile(), accounts);
+          Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE,
+                  StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+          Files.deleteIfExists(temporaryFile);
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Unable to save the test account {} in the cache file {}", account.email(),
+              cacheFile, e);
+    }
+  }
+}
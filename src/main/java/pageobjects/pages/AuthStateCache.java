@@ -0,0 +1,207 @@
+package pageobjects.pages;
+
+import driver.DriverBase;
+import environment.EnvironmentConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.InvalidCookieDomainException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import utils.TestAccount;
+import utils.TestAccountProvider;
+import utils.TestReporter;
+
+/**
+ * Authentication state of the test accounts: cookies and local storage captured after logging in
+ * through the sidebar once, and injected in the next sessions instead of logging in again. A
+ * state older than the max-age-seconds of the auth-state section of the config file, or with an
+ * expired cookie, is captured again. With verify, the restored state is checked in the sidebar,
+ * and an invalidated state is replaced by a new login. The check opens and closes the sidebar, a
+ * full UI round trip, still cheaper than the login screens. The tests log in through
+ * HomePage.loginWithLeasedAccount(), so only the test leasing an account replaces its state.
+ */
+public final class AuthStateCache {
+
+  /**
+   * Logger.
+   */
+  private static final Logger logger = LogManager.getLogger(AuthStateCache.class);
+
+  private static final String READ_LOCAL_STORAGE_SCRIPT =
+          "var items = {};"
+          + " for (var i = 0; i < window.localStorage.length; i++) {"
+          + "   var key = window.localStorage.key(i);"
+          + "   items[key] = window.localStorage.getItem(key);"
+          + " }"
+          + " return items;";
+
+  private static final String WRITE_LOCAL_STORAGE_SCRIPT =
+          "window.localStorage.clear();"
+          + " var items = arguments[0];"
+          + " Object.keys(items).forEach(function (key) {"
+          + "   window.localStorage.setItem(key, items[key]);"
+          + " });";
+
+  /**
+   * Authentication state by account email.
+   */
+  private static final Map<String, AuthState> states = new ConcurrentHashMap<>();
+
+  private static final AtomicInteger restored = new AtomicInteger();
+  private static final AtomicInteger loggedIn = new AtomicInteger();
+  private static final AtomicInteger invalidated = new AtomicInteger();
+
+  static {
+    // the accounts with a cached state are leased first, they log in without the sidebar
+    TestAccountProvider.preferAccounts(AuthStateCache::hasValidState);
+  }
+
+  /**
+   * Private constructor.
+   */
+  private AuthStateCache() {
+  }
+
+  /**
+   * Checks if an account has a cached state that was not invalidated and has not expired.
+   * @param account the test account
+   * @return true if logIn() restores the state of the account instead of logging in
+   */
+  public static boolean hasValidState(TestAccount account) {
+    AuthState state = states.get(account.email());
+    return null != state && !state.isExpired(EnvironmentConfig.getAuthStateMaxAge());
+  }
+
+  /**
+   * Logs in with a test account, from the cached state of the account if there is a valid one,
+   * or through the sidebar otherwise.
+   * @param homePage the loaded home page, not logged in
+   * @param account the test account
+   * @return the home page with the user logged in
+   */
+  static HomePage logIn(HomePage homePage, TestAccount account) {
+    AuthState state = states.get(account.email());
+    if (null != state && state.isExpired(EnvironmentConfig.getAuthStateMaxAge())) {
+      logger.debug("The authentication state of {} expired", account.email());
+      states.remove(account.email(), state);
+      state = null;
+    }
+
+    HomePage page = homePage;
+    if (null != state) {
+      TestReporter.addInfoToReport("Restore the authentication state of " + account.email());
+      page = restore(state);
+      if (!EnvironmentConfig.isAuthStateVerified() || page.header().isUserLoggedIn()) {
+        restored.incrementAndGet();
+        return page;
+      }
+      logger.info("The authentication state of {} is not valid anymore", account.email());
+      invalidated.incrementAndGet();
+      states.remove(account.email(), state);
+      page = restore(AuthState.EMPTY);
+    }
+
+    page.login(account.email(), account.password());
+    loggedIn.incrementAndGet();
+    states.put(account.email(), capture());
+    logger.debug("Authentication state of {} captured", account.email());
+    return page;
+  }
+
+  /**
+   * Captures the state of the current session, logged in with the account by another way than
+   * logIn(), as after registering the account.
+   * @param account the test account
+   */
+  static void store(TestAccount account) {
+    states.put(account.email(), capture());
+    logger.debug("Authentication state of {} captured", account.email());
+  }
+
+  /**
+   * Removes the state of an account, for the tests that log out or change the account.
+   * @param account the test account
+   */
+  public static void invalidate(TestAccount account) {
+    states.remove(account.email());
+  }
+
+  /**
+   * Logs the number of logins saved by the cache since the beginning of the suite.
+   */
+  public static void logStats() {
+    logger.info("Authentication states: {} restored, {} logins through the sidebar, "
+            + "{} invalidated", restored.get(), loggedIn.get(), invalidated.get());
+  }
+
+  private static AuthState capture() {
+    WebDriver driver = DriverBase.getDriver();
+    Map<String, String> localStorage = new HashMap<>();
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      Map<?, ?> items = (Map<?, ?>) ((JavascriptExecutor) driver)
+              .executeScript(READ_LOCAL_STORAGE_SCRIPT);
+      items.forEach((key, value) -> localStorage.put(String.valueOf(key), String.valueOf(value)));
+    }
+    return new AuthState(driver.manage().getCookies(), localStorage);
+  }
+
+  /**
+   * Replaces the cookies and local storage of the site, and reloads the home page with them.
+   */
+  private static HomePage restore(AuthState state) {
+    WebDriver driver = DriverBase.getDriver();
+    driver.manage().deleteAllCookies();
+    for (Cookie cookie : state.cookies) {
+      try {
+        driver.manage().addCookie(cookie);
+      } catch (InvalidCookieDomainException e) {
+        logger.debug("Cookie {} not restored, its domain is not the one of the page",
+                cookie.getName(), e);
+      }
+    }
+    if (DriverBase.getBrowserType().isJavascriptEnabled()) {
+      ((JavascriptExecutor) driver).executeScript(WRITE_LOCAL_STORAGE_SCRIPT, state.localStorage);
+    }
+    driver.navigate().refresh();
+    HomePage homePage = new HomePage(true);
+    homePage.get();
+    return homePage;
+  }
+
+  /**
+   * Cookies and local storage of a logged in user.
+   */
+  private static final class AuthState {
+
+    private static final AuthState EMPTY =
+            new AuthState(Collections.emptySet(), Collections.emptyMap());
+
+    private final Set<Cookie> cookies;
+    private final Map<String, String> localStorage;
+    private final Instant capturedAt = Instant.now();
+
+    AuthState(Set<Cookie> cookies, Map<String, String> localStorage) {
+      this.cookies = cookies;
+      this.localStorage = localStorage;
+    }
+
+    boolean isExpired(Duration maxAge) {
+      if (Duration.between(capturedAt, Instant.now()).compareTo(maxAge) > 0) {
+        return true;
+      }
+      Date now = new Date();
+      return cookies.stream().anyMatch(cookie -> null != cookie.getExpiry()
+              && cookie.getExpiry().before(now));
+    }
+  }
+}
@@ -1,13 +1,19 @@
 package pageobjects.pages;
 
+import driver.DriverBase;
+import driver.WorkerSlot;
 import environment.EnvironmentConfig;
 import java.net.MalformedURLException;
 import java.net.URL;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 import pageobjects.base.AbstractPage;
+import pageobjects.base.ElementProbe;
 import pageobjects.components.Footer;
 import pageobjects.components.HeaderNoSearch;
 import pageobjects.components.SearchComponent;
+import utils.AccountLease;
+import utils.TestAccountProvider;
 import utils.TestReporter;
 
 /**
@@ -22,11 +28,23 @@ public class HomePage extends AbstractPage {
   private static final By searchContainerBy =
           By.cssSelector("div[data-test='search-component']");
 
-  // Components
+  /**
+   * Attribute of the WorkerSlot keeping the account leased by loginWithLeasedAccount().
+   */
+  private static final String ACCOUNT_LEASE = "homePage.accountLease";
+
+  // Containers of the components, found when the page is loaded
+  private WebElement headerContainer;
+  private WebElement footerContainer;
+  private WebElement searchContainer;
+
+  // Components, initialized and verified the first time they are used
   private HeaderNoSearch header;
   private Footer footer;
   private SearchComponent searchComponent;
 
+  private static final String HOME_PAGE_NOT_LOADED = "The Home page was not loaded correctly";
+
   private URL homePageUrl;
   private boolean comingFromAnotherPage;
 
@@ -72,14 +90,48 @@ public class HomePage extends AbstractPage {
 
   }
 
+  /**
+   * Gets the header of the page. The header is initialized and verified the first time it is
+   * used.
+   * @return the HeaderNoSearch component
+   */
   public HeaderNoSearch header() {
+    if (null == header) {
+      logger.debug("Initializing the header");
+      header = new HeaderNoSearch(headerContainer);
+      header.get();
+    }
     return header;
   }
 
+  /**
+   * Gets the footer of the page. The footer is initialized and verified the first time it is
+   * used.
+   * @return the Footer component
+   */
   public Footer footer() {
+    if (null == footer) {
+      logger.debug("Initializing the footer");
+      footer = new Footer(footerContainer);
+      footer.get();
+    }
     return footer;
   }
 
+  /**
+   * Gets the search component of the page. The component is initialized and verified the first
+   * time it is used.
+   * @return the SearchComponent
+   */
+  private SearchComponent searchComponent() {
+    if (null == searchComponent) {
+      logger.debug("Initializing the search component");
+      searchComponent = new SearchComponent(searchContainer);
+      searchComponent.get();
+    }
+    return searchComponent;
+  }
+
   /**
    * Launch a search with the what and where arguments.
    *
@@ -88,7 +140,7 @@ public class HomePage extends AbstractPage {
    * @return The Search Page with the results.
    */
   public SearchPage search(String what, String where) {
-    return searchComponent.search(what, where);
+    return searchComponent().search(what, where);
   }
 
   /**
@@ -99,7 +151,7 @@ public class HomePage extends AbstractPage {
    */
   public HomePage enterWhat(String what) {
     TestReporter.addInfoToReport("Enter what: " + what);
-    searchComponent.enterWhat(what);
+    searchComponent().enterWhat(what);
     return this;
   }
 
@@ -111,7 +163,7 @@ public class HomePage extends AbstractPage {
    */
   public HomePage enterWhere(String where) {
     TestReporter.addInfoToReport("Enter where: " + where);
-    searchComponent.enterWhere(where);
+    searchComponent().enterWhere(where);
     return this;
   }
 
@@ -122,7 +174,7 @@ public class HomePage extends AbstractPage {
    */
   public SearchPage launchSearch() {
     TestReporter.addInfoToReport("Launch search");
-    return searchComponent.launchSearch();
+    return searchComponent().launchSearch();
   }
 
   /**
@@ -132,7 +184,7 @@ public class HomePage extends AbstractPage {
    */
   public HomePage selectSearchAllRestaurants() {
     TestReporter.addInfoToReport("Select All Restaurants in the search what field");
-    searchComponent.selectAllRestaurants();
+    searchComponent().selectAllRestaurants();
     return this;
   }
 
@@ -143,7 +195,7 @@ public class HomePage extends AbstractPage {
    */
   public HomePage selectSearchNearMe() {
     TestReporter.addInfoToReport("Select Near Me in the search where field");
-    searchComponent.selectNearMe();
+    searchComponent().selectNearMe();
     return this;
   }
 
@@ -154,7 +206,7 @@ public class HomePage extends AbstractPage {
    * @return The same Home Page.
    */
   public HomePage selectFromAutocomplete(String text) {
-    searchComponent.selectFromAutocomplete(text);
+    searchComponent().selectFromAutocomplete(text);
     return this;
   }
 
@@ -170,6 +222,27 @@ public class HomePage extends AbstractPage {
     return this;
   }
 
+  /**
+   * Leases a test account for the rest of the test and logs in with it, restoring its cookies
+   * and local storage when the account already logged in during the suite, instead of logging
+   * in through the sidebar. The account is leased for the exclusive use of the test, so no other
+   * test changes its session or its cached state, and it is given back when the test releases
+   * its worker slot. The tests of the login itself must use login(email, password).
+   *
+   * @return The Home Page with the user logged in, reloaded if the state was restored.
+   */
+  public HomePage loginWithLeasedAccount() {
+    WorkerSlot slot = DriverBase.getWorkerSlot();
+    Object previousLease = slot.removeAttribute(ACCOUNT_LEASE);
+    if (previousLease instanceof AccountLease) {
+      ((AccountLease) previousLease).close();
+    }
+    AccountLease lease = TestAccountProvider.leaseAccount();
+    slot.setAttribute(ACCOUNT_LEASE, lease);
+    TestReporter.addInfoToReport("Log in with " + lease.account().email());
+    return AuthStateCache.logIn(this, lease.account());
+  }
+
 
   /**
    * Check autocomplete result contains the text in param.
@@ -179,7 +252,7 @@ public class HomePage extends AbstractPage {
    */
   public boolean isTextPresentInAutoCompleteResult(String text) {
     TestReporter.addInfoToReport("Check if autocomplete result contains text " + text);
-    return searchComponent.autocompleteContains(text);
+    return searchComponent().autocompleteContains(text);
   }
 
   /**
@@ -190,7 +263,7 @@ public class HomePage extends AbstractPage {
   protected void load() {
     if (!comingFromAnotherPage) {
       TestReporter.addInfoToReport("Opening Home Page: " + homePageUrl);
-      driver.get(homePageUrl.toString());
+      navigateTo(homePageUrl.toString());
       driver.navigate().refresh();
     } else {
       TestReporter.addInfoToReport("Opening Home Page when coming from another page");
@@ -200,31 +273,26 @@ public class HomePage extends AbstractPage {
 
   /**
    * isLoaded() is called when HomePage.get() is called. Defines when the page has finished
-   * loading. It must verify that the components of this page have also finished loading before
-   * continuing.
+   * loading. The components of this page are verified when they are first used.
    */
   @Override
   protected void isLoaded() throws Error {
+    ElementProbe elements = null;
     try {
-      // verify that each element is displayed before continuing
-      driver.findElement(tagLineBy);
-      logger.debug("Tag line is displayed");
-      driver.findElement(headerBy);
-      logger.debug("Header container is displayed");
-      driver.findElement(footerBy);
-      logger.debug("Footer container is displayed");
-      driver.findElement(searchContainerBy);
-      logger.debug("Search container is displayed");
+      // verify that each element is displayed before continuing, in one round trip
+      elements = verifyPresent(HOME_PAGE_NOT_LOADED, tagLineBy, headerBy, footerBy,
+              searchContainerBy);
     } catch (Exception e) {
-      throwNotLoadedException("The Home page was not loaded correctly", e);
+      throwNotLoadedException(HOME_PAGE_NOT_LOADED, e);
     }
 
-    // initialize and verify that each internal component is loaded
-    header = new HeaderNoSearch(driver.findElement(headerBy));
-    header.get();
-    footer = new Footer(driver.findElement(footerBy));
-    footer.get();
-    searchComponent = new SearchComponent(driver.findElement(searchContainerBy));
-    searchComponent.get();
+    // keep the containers found by the probe, the components are only initialized and verified
+    // when the test uses them
+    headerContainer = elements.getElement(headerBy);
+    footerContainer = elements.getElement(footerBy);
+    searchContainer = elements.getElement(searchContainerBy);
+    header = null;
+    footer = null;
+    searchComponent = null;
   }
 }
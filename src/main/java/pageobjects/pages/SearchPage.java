@@ -1,11 +1,12 @@
 package pageobjects.pages;
 
-import driver.DriverBase;
+import environment.EnvironmentConfig;
 import java.util.regex.Pattern;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NotFoundException;
 import org.openqa.selenium.WebElement;
 import pageobjects.base.AbstractPage;
+import pageobjects.base.ElementProbe;
 import pageobjects.components.Footer;
 import pageobjects.components.SearchResultList;
 import utils.TestReporter;
@@ -37,7 +38,12 @@ public class SearchPage extends AbstractPage {
           By.cssSelector("header[data-test='search-marketing-banner-header']");
   private static final By numberOfRestaurants = By.cssSelector("[data-test='result-count']");
 
-  // Components
+  // Containers of the components, found when the page is loaded. The result list container is
+  // null when the empty list message is displayed
+  private WebElement footerContainer;
+  private WebElement resultListContainer;
+
+  // Components, initialized and verified the first time they are used
   private Footer footer;
   private SearchResultList searchResultList;
 
@@ -56,18 +62,57 @@ public class SearchPage extends AbstractPage {
 
   /**
    * Constructor of the SearchPage class when opening the page directly from the URL.
+   * @param searchArguments the query string of the search, as cityId=415144
    */
   public SearchPage(String searchArguments) {
     super();
-    logger.debug("Initializing Search Page with argument '{}", searchArguments);
-    driver = DriverBase.getDriver();
-    logger.debug("Full Search Page url '{}", searchPageUrl);
+    logger.debug("Initializing Search Page with argument '{}'", searchArguments);
+    searchPageUrl = SearchParameters.toUrl(EnvironmentConfig.getTheForkUrl(), searchArguments);
+    logger.debug("Full Search Page url '{}'", searchPageUrl);
+  }
+
+  /**
+   * Constructor of the SearchPage class when opening the page directly from the URL, without
+   * searching from the home page.
+   * @param searchParameters the city, filters, sort and page of the search
+   */
+  public SearchPage(SearchParameters searchParameters) {
+    this(searchParameters.toQueryString());
   }
 
+  /**
+   * Gets the footer of the page. The footer is initialized and verified the first time it is
+   * used.
+   * @return the Footer component
+   */
   public Footer footer() {
+    if (null == footer) {
+      logger.debug("Initializing the footer");
+      footer = new Footer(footerContainer);
+      footer.get();
+    }
     return footer;
   }
 
+  /**
+   * Gets the list of results of the search. The list is initialized and verified the first time
+   * it is used, and has no result when the empty list message is displayed.
+   * @return the SearchResultList component
+   */
+  public SearchResultList results() {
+    if (null == searchResultList) {
+      if (null != resultListContainer) {
+        logger.debug("Initializing the search result list");
+        searchResultList = new SearchResultList(resultListContainer);
+        searchResultList.get();
+      } else {
+        logger.debug("Initializing the SearchResultList with zero element");
+        searchResultList = new SearchResultList();
+      }
+    }
+    return searchResultList;
+  }
+
 
 
 
@@ -128,6 +173,7 @@ public class SearchPage extends AbstractPage {
     if (specialOffersButton.findElements(By.tagName("span")).size() == 1) {
       logger.debug("Click the white special offers button");
       specialOffersButton.click();
+      waitForNetworkIdle();
       SearchPage searchPage = new SearchPage();
       searchPage.get();
       return searchPage;
@@ -150,6 +196,7 @@ public class SearchPage extends AbstractPage {
     if (specialOffersButton.findElements(By.tagName("span")).size() != 1) {
       logger.debug("Click the black special offers button");
       specialOffersButton.click();
+      waitForNetworkIdle();
       SearchPage searchPage = new SearchPage();
       searchPage.get();
       return searchPage;
@@ -185,60 +232,59 @@ public class SearchPage extends AbstractPage {
     return Integer.parseInt(number);
   }
 
+  /**
+   * load() is called when SearchPage.get() is called and the page is not loaded. Opens the search
+   * page URL when the page was created from search arguments.
+   */
+  @Override
+  protected void load() {
+    if (null != searchPageUrl) {
+      TestReporter.addInfoToReport("Opening Search Page: " + searchPageUrl);
+      navigateTo(searchPageUrl);
+    } else {
+      logger.debug("Opening Search Page when coming from another page");
+    }
+  }
+
   /**
    * isLoaded() is called when SearchPage.get() is called. Defines when the page has finished
-   * loading. It must verify that the components of this page have also finished loading before
-   * continuing.
+   * loading. The components of this page are verified when they are first used.
    */
   @Override
   protected void isLoaded() throws Error {
-    // First load the DHP menu and close it if it's open
-    try {
-      driver.findElement(dhpBy);
-      logger.debug("Dhp container is visible");
-    } catch (Exception e) {
-      throwNotLoadedException(SEARCH_PAGE_NOT_LOADED, e);
+    if (null != searchPageUrl && !hasNavigated()) {
+      // another search page may be displayed, the search of this page must be opened
+      throwNotLoadedException(SEARCH_PAGE_NOT_LOADED + "\nThe search url was not opened yet");
     }
 
-    // Continue loading the rest of the page
+    ElementProbe elements = null;
     try {
-      // verify that each element is displayed before continuing
-      driver.findElement(numberOfResultsBy);
-      logger.debug("Number of results is visible");
-      driver.findElement(headerContainerBy);
-      logger.debug("Header container is visible");
-      driver.findElement(footerContainerBy);
-      logger.debug("Footer container is visible");
-      driver.findElement(mapContainerBy);
-      logger.debug("GoogleMap container is visible");
-      driver.findElement(sortByButtonBy);
-      logger.debug("Sort by button is displayed");
+      // verify that each element is displayed before continuing, in one round trip. The list of
+      // results and the empty list message are probed together, only one of them is displayed
+      elements = probe(dhpBy, numberOfResultsBy, headerContainerBy, footerContainerBy,
+              mapContainerBy, sortByButtonBy, resultListContainerBy,
+              listOfRestaurantsEmptyMessageBy);
+      verifyPresent(elements, SEARCH_PAGE_NOT_LOADED, dhpBy, numberOfResultsBy,
+              headerContainerBy, footerContainerBy, mapContainerBy, sortByButtonBy);
+      logger.debug("Dhp, number of results, header, footer, map and sort by are visible");
     } catch (Exception e) {
       throwNotLoadedException(SEARCH_PAGE_NOT_LOADED, e);
     }
 
-    try {
-      // special case for the list of results, if there are no search results the list does not
-      // appear
-      driver.findElement(resultListContainerBy);
+    // keep the containers found by the probe, the components are only initialized and verified
+    // when the test uses them
+    footerContainer = elements.getElement(footerContainerBy);
+    resultListContainer = null;
+    footer = null;
+    searchResultList = null;
+    if (elements.isPresent(resultListContainerBy)) {
       logger.debug("Search list result is displayed");
-
-      // only initializes the search result list if it is visible
-      searchResultList = new SearchResultList(driver.findElement(resultListContainerBy));
-      searchResultList.get();
-
-    } catch (Exception noSearchList) {
-      // if the search restaurant list was not found, try to find the empty restaurant list message
-      try {
-        logger.debug("Search list result is not displayed, checking for empty list message",
-                noSearchList);
-        driver.findElement(listOfRestaurantsEmptyMessageBy).isDisplayed();
-        logger.debug("Empty restaurant list message is displayed");
-        searchResultList = new SearchResultList();
-        logger.debug("Initializing the SearchResultList with zero element");
-      } catch (Exception e) {
-        throwNotLoadedException(SEARCH_PAGE_NOT_LOADED, e);
-      }
+      resultListContainer = elements.getElement(resultListContainerBy);
+    } else if (elements.isPresent(listOfRestaurantsEmptyMessageBy)) {
+      logger.debug("Empty restaurant list message is displayed");
+    } else {
+      throwNotLoadedException(SEARCH_PAGE_NOT_LOADED
+              + "\nNeither the search result list nor the empty list message was found");
     }
   }
 }
@@ -0,0 +1,97 @@
+package pageobjects.pages;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Parameters of a search, to open the search page directly from its URL instead of searching
+ * from the home page. Example: new SearchParameters("415144").sort("popularity").page(2) opens
+ * https://www.thefork.com/search/?cityId=415144&amp;sort=popularity&amp;p=2
+ */
+public final class SearchParameters {
+
+  private static final String SEARCH_PATH = "search/";
+
+  private final Map<String, String> parameters = new LinkedHashMap<>();
+
+  /**
+   * Constructor of the SearchParameters class.
+   * @param cityId the id of the city to search in
+   */
+  public SearchParameters(String cityId) {
+    parameters.put("cityId", cityId);
+  }
+
+  /**
+   * Adds a filter of the search.
+   * @param name the name of the filter in the URL
+   * @param value the value of the filter
+   * @return this SearchParameters
+   */
+  public SearchParameters filter(String name, String value) {
+    parameters.put(name, value);
+    return this;
+  }
+
+  /**
+   * Sets the order of the results.
+   * @param sort the sort option, as in the URL
+   * @return this SearchParameters
+   */
+  public SearchParameters sort(String sort) {
+    parameters.put("sort", sort);
+    return this;
+  }
+
+  /**
+   * Sets the page of the results.
+   * @param page the page number, starting from 1
+   * @return this SearchParameters
+   */
+  public SearchParameters page(int page) {
+    parameters.put("p", String.valueOf(page));
+    return this;
+  }
+
+  /**
+   * Gets the query string of the search, as cityId=415144&amp;p=2.
+   * @return the encoded query string
+   */
+  public String toQueryString() {
+    return parameters.entrySet().stream()
+            .map(parameter -> encode(parameter.getKey()) + "=" + encode(parameter.getValue()))
+            .collect(Collectors.joining("&"));
+  }
+
+  /**
+   * Gets the URL of the search page.
+   * @param baseUrl the url of the site, as https://www.thefork.com/
+   * @return the URL of the search page with the parameters
+   */
+  public String toUrl(String baseUrl) {
+    return toUrl(baseUrl, toQueryString());
+  }
+
+  /**
+   * Gets the URL of the search page from an already encoded query string.
+   * @param baseUrl the url of the site, as https://www.thefork.com/
+   * @param queryString the encoded query string
+   * @return the URL of the search page
+   */
+  static String toUrl(String baseUrl, String queryString) {
+    String site = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    return site + SEARCH_PATH + "?" + queryString;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return toQueryString();
+  }
+}
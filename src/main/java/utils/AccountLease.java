@@ -0,0 +1,36 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exclusive use of a test account by a test, from TestAccountProvider.leaseAccount() until the
+ * lease is closed. To be used in a try-with-resources block, so that the account is given back
+ * even if the test fails.
+ */
+public final class AccountLease implements AutoCloseable {
+
+  private final TestAccount account;
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  /**
+   * Constructor of the AccountLease class.
+   * @param account the leased account
+   */
+  AccountLease(TestAccount account) {
+    this.account = account;
+  }
+
+  public TestAccount account() {
+    return account;
+  }
+
+  /**
+   * Gives the account back to the TestAccountProvider. Closing the lease again does nothing.
+   */
+  @Override
+  public void close() {
+    if (released.compareAndSet(false, true)) {
+      TestAccountProvider.release(account);
+    }
+  }
+}
@@ -3,17 +3,41 @@ package utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public final class TestAccountProvider {
-  private static List<TestAccount> testAccountsList = new ArrayList<>();
+  private static final List<TestAccount> testAccountsList = new CopyOnWriteArrayList<>();
   private static final SecureRandom random = new SecureRandom();
   private static final Logger logger = LogManager.getLogger(TestAccountProvider.class);
 
+  private static final String DEFAULT_LEASE_TIMEOUT = "60";
+
+  /**
+   * Accounts not leased. The accounts given back are put first, so when no free account is
+   * preferred the most recently used accounts are leased before the others.
+   */
+  private static final Deque<TestAccount> freeAccounts = new ConcurrentLinkedDeque<>();
+
+  /**
+   * One permit per account not leased, to wait for an account when all of them are leased.
+   */
+  private static final Semaphore availableAccounts;
+
+  /**
+   * Tells if an account has a valid cached login, those accounts are leased first. Set by the
+   * authentication state cache, no account is preferred until then.
+   */
+  private static volatile Predicate<TestAccount> preferredAccounts = account -> false;
+
   private TestAccountProvider() {
   }
 
@@ -23,25 +47,143 @@ public final class TestAccountProvider {
       ObjectMapper mapper = new ObjectMapper();
 
       // convert JSON array to list of accounts
-      testAccountsList = Arrays
+      testAccountsList.addAll(Arrays
               .asList(mapper.readValue(Paths.get("test-data/testAccounts.json").toFile(),
-                      TestAccount[].class));
+                      TestAccount[].class)));
     } catch (Exception e) {
       logger.error(e);
     }
+    freeAccounts.addAll(testAccountsList);
+    availableAccounts = new Semaphore(testAccountsList.size());
   }
 
   /**
-   * Get a random TestAccount from the testAccountsList.
+   * Get a random TestAccount from the testAccountsList. The account may be used by another test
+   * at the same time.
    * @return TestAccount object.
+   * @deprecated use leaseAccount(), that gives an account for the exclusive use of the test
    */
+  @Deprecated
   public static TestAccount getAccount() {
     logger.info("Selecting a random account from the list.");
     TestAccount account = testAccountsList.get(random.nextInt(testAccountsList.size()));
+    logAccount(account);
+    return account;
+  }
+
+  /**
+   * Leases a TestAccount for the exclusive use of the test, waiting for an account for
+   * -DaccountLeaseTimeout seconds if all of them are leased.
+   * @return the AccountLease, to be closed at the end of the test
+   */
+  public static AccountLease leaseAccount() {
+    return leaseAccount(Long.parseLong(
+            System.getProperty("accountLeaseTimeout", DEFAULT_LEASE_TIMEOUT)));
+  }
+
+  /**
+   * Leases a TestAccount for the exclusive use of the test. A free account with a valid cached
+   * login is leased first, the test doesn't have to log in through the sidebar. There is no
+   * affinity between an account and a browser session: the sessions are reset between tests, so
+   * the cached login is the only state an account keeps from one lease to the next.
+   * @param timeoutSeconds time to wait for an account if all of them are leased
+   * @return the AccountLease, to be closed at the end of the test
+   * @throws IllegalStateException if no account is given back or added before the timeout
+   */
+  public static AccountLease leaseAccount(long timeoutSeconds) {
+    long start = System.currentTimeMillis();
+    try {
+      if (!availableAccounts.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("No test account was available after "
+                + timeoutSeconds + " seconds, the " + testAccountsList.size()
+                + " accounts are leased");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a test account", e);
+    }
+    long waited = System.currentTimeMillis() - start;
+    if (waited > 0) {
+      logger.info("Waited {} ms for a test account", waited);
+    }
+
+    TestAccount account = pollPreferredAccount();
+    boolean preferred = null != account;
+    if (!preferred) {
+      // the permit guarantees that there is a free account
+      account = freeAccounts.pollFirst();
+    }
+    logger.info("Leased test account {}{}", account.email(),
+            preferred ? ", its login is cached" : "");
+    logAccount(account);
+    return new AccountLease(account);
+  }
+
+  /**
+   * Sets the accounts leased first, as the accounts with a valid cached login.
+   * @param preferred tells if an account is preferred
+   */
+  public static void preferAccounts(Predicate<TestAccount> preferred) {
+    preferredAccounts = preferred;
+  }
+
+  /**
+   * Takes the first free preferred account.
+   * @return the account, or null if no free account is preferred
+   */
+  private static TestAccount pollPreferredAccount() {
+    Predicate<TestAccount> preferred = preferredAccounts;
+    for (TestAccount account : freeAccounts) {
+      // another thread may have taken the account in the meantime
+      if (preferred.test(account) && freeAccounts.removeFirstOccurrence(account)) {
+        return account;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds an account to the pool, as a provisioned account. The account can be leased at once.
+   * @param account the new account
+   */
+  public static void addAccount(TestAccount account) {
+    testAccountsList.add(account);
+    freeAccounts.addLast(account);
+    availableAccounts.release();
+    logger.info("Test account {} added, {} accounts", account.email(), testAccountsList.size());
+  }
+
+  /**
+   * Checks if the pool has an account.
+   * @param email the email of the account
+   * @return true if the account is in the pool
+   */
+  public static boolean hasAccount(String email) {
+    return testAccountsList.stream().anyMatch(account -> account.email().equals(email));
+  }
+
+  /**
+   * Gets the number of accounts of the pool, leased or not.
+   * @return number of accounts
+   */
+  public static int getAccountCount() {
+    return testAccountsList.size();
+  }
+
+  /**
+   * Gives back a leased account.
+   * @param account the account
+   */
+  static void release(TestAccount account) {
+    freeAccounts.addFirst(account);
+    availableAccounts.release();
+    logger.debug("Released test account {}", account.email());
+  }
+
+  private static void logAccount(TestAccount account) {
     logger.debug("Test account email: {}", account.email());
     logger.debug("Test account password: {}", account.password());
     logger.debug("Test account first name: {}", account.firstName());
     logger.debug("Test account last name: {}", account.lastName());
-    return account;
   }
 }
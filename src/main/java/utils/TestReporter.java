@@ -1,6 +1,7 @@
 package utils;
 
 import static driver.DriverBase.getDriver;
+import static driver.DriverBase.getWorkerSlot;
 
 
 import com.aventstack.extentreports.MediaEntityBuilder;
@@ -33,12 +34,6 @@ public final class TestReporter {
                   RandomStringGenerator.LOWERCASE);
   private static final int MAX_RETRY_COUNT = 2;
 
-  /**
-   * Keeps the number of the last message displayed on the test report log of each test. Useful
-   * for tracking metrics on where in the scenario the test failed.
-   */
-  private static final ThreadLocal<Integer> threadStepNumber = ThreadLocal.withInitial(() -> 1);
-
   private static int retryCount;
 
   /**
@@ -49,18 +44,20 @@ public final class TestReporter {
   }
 
   /**
-   * Resets the step counter to 1.
+   * Resets the step counter to 1. The step counter numbers the messages displayed on the test
+   * report log of each test, useful for tracking metrics on where in the scenario the test failed.
+   * It is kept in the WorkerSlot of the test, whatever thread runs it.
    */
   public static void resetStepCounter() {
     logger.debug("The step counter was reset to 1");
-    threadStepNumber.set(1);
+    getWorkerSlot().resetStepCounter();
   }
 
   /**
    * Gets the number of the current step to be logged.
    */
   public static int getCurrentStepNumber() {
-    return threadStepNumber.get();
+    return getWorkerSlot().getCurrentStepNumber();
   }
 
   /**
@@ -80,7 +77,7 @@ public final class TestReporter {
     logger.debug(message);
     WebDriver webDriver = getDriver();
 
-    if (retryCount == MAX_RETRY_COUNT) {
+    if (retryCount == MAX_RETRY_COUNT && webDriver instanceof TakesScreenshot) {
       logger.debug("Taking screenshot");
       File scrFile = ((TakesScreenshot) webDriver).getScreenshotAs(OutputType.FILE);
       String projectPath = System.getProperty("user.dir");
@@ -97,10 +94,7 @@ public final class TestReporter {
         return;
       }
 
-      int currentStep = threadStepNumber.get();
-      String messageWithStepNumber = Integer.toString(currentStep) + " - " + message;
-      currentStep++;
-      threadStepNumber.set(currentStep);
+      String messageWithStepNumber = getWorkerSlot().nextStepNumber() + " - " + message;
       ExtentTestManager.getTest().log(Status.INFO, messageWithStepNumber
                       + " ------ Screenshot: ",
               MediaEntityBuilder.createScreenCaptureFromPath(fileName, fileName).build());
@@ -129,10 +123,6 @@ public final class TestReporter {
   @NotNull
   private static String addMessageToReport(String message) {
     logger.debug(message);
-    int currentStep = threadStepNumber.get();
-    String messageWithStepNumber = currentStep + " - " + message;
-    currentStep++;
-    threadStepNumber.set(currentStep);
-    return messageWithStepNumber;
+    return getWorkerSlot().nextStepNumber() + " - " + message;
   }
 }
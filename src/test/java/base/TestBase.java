@@ -7,13 +7,18 @@ import driver.DriverBase;
 import java.lang.reflect.Method;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.logging.log4j.ThreadContext;
 import org.jetbrains.annotations.NotNull;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Listeners;
+import pageobjects.base.PageLoadTimes;
+import pageobjects.base.Waits;
+import pageobjects.pages.AccountProvisioner;
+import pageobjects.pages.AuthStateCache;
 import utils.TestReporter;
 
 @Listeners({ExtentITestListenerAdapter.class})
@@ -26,6 +31,16 @@ public class TestBase extends DriverBase {
 
   protected int retryCounter;
 
+  /**
+   * Starts registering the missing test accounts in background, if enabled in the command line.
+   */
+  @BeforeSuite(alwaysRun = true)
+  public void startAccountProvisioning() {
+    if (AccountProvisioner.isEnabled()) {
+      AccountProvisioner.start();
+    }
+  }
+
   /**
    * Logs the start of each test.
    *
@@ -33,15 +48,8 @@ public class TestBase extends DriverBase {
    */
   @BeforeMethod(alwaysRun = true)
   public void startTest(final @NotNull Method method, ITestResult testResult) {
-    /*
-     The following instruction is used to tell log4j which file the log will be written to depending
-     on the thread name. The thread name is used as the value threadId that is used as the routing
-     key in the routing appender. Check the log4j2.xml config file.
-     For more info check here:
-     https://stackoverflow.com/questions/8355847/how-to-log-multiple-threads-in-different-log-files
-     http://logging.apache.org/log4j/2.x/faq.html#separate_log_files
-    */
-    ThreadContext.put("threadId", Thread.currentThread().getName());
+    // the logs of the test go to the log file of its worker slot, whatever thread runs it,
+    // see DriverRegistry.getSlot()
 
     // resets the test report step counter to 1
     TestReporter.resetStepCounter();
@@ -63,9 +71,9 @@ public class TestBase extends DriverBase {
    */
   @AfterMethod(alwaysRun = true)
   public synchronized void finishTest(@NotNull ITestResult result) {
-    // Write a Test Report log to identify which thread the test ran on
+    // Write a Test Report log to identify which worker slot the test ran in
     TestReporter.addInfoToReport("The test logs have been saved in: "
-            + Thread.currentThread().getName() + ".log");
+            + getWorkerSlot().getName() + ".log");
 
     // Write logs and take screenshot if failed or skipped
     if (result.getStatus() == ITestResult.FAILURE) {
@@ -88,13 +96,35 @@ public class TestBase extends DriverBase {
     logger.info("-------- Finished test " + result.getName() + " --------");
   }
 
+  /**
+   * Logs the time spent waiting for each condition of the page objects, to find the waits that
+   * dominate the duration of the tests, the time saved by the page load strategy and the logins
+   * saved by the authentication state cache.
+   */
+  @AfterSuite(alwaysRun = true)
+  public void logWaitStats() {
+    Waits.logStats();
+    PageLoadTimes.logStats();
+    AuthStateCache.logStats();
+  }
+
+  /**
+   * Stops registering test accounts before the browser sessions are quit.
+   */
+  @AfterSuite(alwaysRun = true)
+  public void stopAccountProvisioning() {
+    if (AccountProvisioner.isEnabled()) {
+      AccountProvisioner.stop();
+    }
+  }
+
   /**
    * Adds the video record at the end of the test report.
    */
   public static void addVideoToReport() {
     logger.info("Adding video to report...");
 
-    String videoFileName = getDriver().getSessionId() + ".mp4";
+    String videoFileName = getSessionInfo().getSessionId() + ".mp4";
     logger.info("The video name is: {}", videoFileName);
 
     // add a link to the video in ExtentReport
@@ -2,6 +2,7 @@ package base;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import driver.DriverBase;
+import driver.SessionInfo;
 import environment.EnvironmentConfig;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
@@ -79,11 +80,11 @@ public final class TestInformation {
    * Constructor.
    */
   public TestInformation() {
-    browser = DriverBase.getDriver().getCapabilities().getBrowserName();
-    browserVersion =  DriverBase.getDriver().getCapabilities()
-            .getCapability("browserVersion").toString();
+    SessionInfo sessionInfo = DriverBase.getSessionInfo();
+    browser = sessionInfo.getBrowserName();
+    browserVersion = sessionInfo.getBrowserVersion();
     webNextGenUrl = EnvironmentConfig.getTheForkUrl();
-    sessionID = DriverBase.getDriver().getSessionId().toString();
+    sessionID = sessionInfo.getSessionId();
     logger.debug("Jenkins job name: {}", jenkinsJobName);
     logger.debug("Jenkins job build number: {}", buildNumber);
     logger.debug("Jenkins job URL: {}", jenkinsJobUrl);
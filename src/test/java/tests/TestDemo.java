@@ -1,8 +1,10 @@
 package tests;
 
 import base.TestBase;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 import pageobjects.pages.HomePage;
+import pageobjects.pages.SearchPage;
 
 @Test(groups = {"full-regression"})
 public class TestDemo extends TestBase {
@@ -32,4 +34,30 @@ public class TestDemo extends TestBase {
 
     //Assert
   }
+
+  /**
+   * Search logged in with a test account, from its cached login when it already logged in.
+   *
+   */
+  @Test(
+      groups = {"customer"},
+      description = "Search logged in with a leased account",
+      enabled = true,
+      retryAnalyzer = TestBase.RetryAnalyzer.class
+  )
+  public void loggedInCustomerSearch() {
+
+    // Arrange
+    HomePage homePage = new HomePage();
+    homePage.get();
+    homePage = homePage.loginWithLeasedAccount();
+
+    Assert.assertTrue(homePage.header().isUserLoggedIn(), "The user is not logged in");
+
+    // Act
+    SearchPage searchPage = homePage.search("Pizza", "Paris");
+
+    //Assert
+    Assert.assertFalse(searchPage.isListOfRestaurantsEmpty(), "No restaurant found");
+  }
 }
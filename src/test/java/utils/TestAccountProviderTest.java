@@ -0,0 +1,121 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that a test account is never leased by two tests at the same time, and that the leases
+ * time out when all the accounts are leased. No browser is started. The checks lease every
+ * account, so they are not in the full-regression group: run them alone with -Dgroups=unit.
+ */
+@Test(groups = {"unit"})
+public class TestAccountProviderTest {
+
+  private static final int EXTRA_ACCOUNTS = 3;
+  private static final int THREADS = 8;
+  private static final int LEASES_PER_THREAD = 200;
+
+  /**
+   * Adds a few accounts to the accounts of test-data/testAccounts.json, so that the threads
+   * compete for more than one account.
+   */
+  @BeforeClass(alwaysRun = true)
+  public void addAccounts() {
+    for (int i = 1; i <= EXTRA_ACCOUNTS; i++) {
+      String email = "lease-check-" + i + "@example.com";
+      if (!TestAccountProvider.hasAccount(email)) {
+        TestAccountProvider.addAccount(new TestAccount(email, "secret", "Lease", "Check", ""));
+      }
+    }
+  }
+
+  /**
+   * Leases and releases the accounts from more threads than there are accounts: an account is
+   * never leased twice at the same time, and every account can be leased again at the end.
+   */
+  @Test(description = "Concurrent leases are exclusive")
+  public void concurrentLeasesAreExclusive() throws Exception {
+    Set<String> leased = ConcurrentHashMap.newKeySet();
+    AtomicInteger collisions = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < LEASES_PER_THREAD; j++) {
+            try (AccountLease lease = TestAccountProvider.leaseAccount(10)) {
+              String email = lease.account().email();
+              if (!leased.add(email)) {
+                collisions.incrementAndGet();
+              }
+              Thread.yield();
+              leased.remove(email);
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(collisions.get(), 0, "Accounts leased by two threads at the same time");
+
+    // every permit came back with its account
+    List<AccountLease> leases = leaseAllAccounts();
+    leases.forEach(AccountLease::close);
+  }
+
+  /**
+   * Leases all the accounts: the next lease times out, and succeeds once an account is released.
+   * Closing a lease twice gives the account back once.
+   */
+  @Test(description = "Leases time out when all the accounts are leased")
+  public void leaseTimesOutWhenExhausted() {
+    List<AccountLease> leases = leaseAllAccounts();
+    try {
+      long start = System.currentTimeMillis();
+      Assert.assertThrows(IllegalStateException.class, () -> TestAccountProvider.leaseAccount(1));
+      Assert.assertTrue(System.currentTimeMillis() - start >= 900,
+              "The lease failed before its timeout");
+
+      AccountLease released = leases.remove(0);
+      released.close();
+      released.close();
+      AccountLease lease = TestAccountProvider.leaseAccount(1);
+      Assert.assertEquals(lease.account(), released.account());
+      leases.add(lease);
+      Assert.assertThrows(IllegalStateException.class, () -> TestAccountProvider.leaseAccount(0));
+    } finally {
+      leases.forEach(AccountLease::close);
+    }
+  }
+
+  private static List<AccountLease> leaseAllAccounts() {
+    List<AccountLease> leases = new ArrayList<>();
+    Set<String> emails = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < TestAccountProvider.getAccountCount(); i++) {
+      AccountLease lease = TestAccountProvider.leaseAccount(1);
+      leases.add(lease);
+      emails.add(lease.account().email());
+    }
+    Assert.assertEquals(emails.size(), leases.size(), "An account was leased twice");
+    return leases;
+  }
+}